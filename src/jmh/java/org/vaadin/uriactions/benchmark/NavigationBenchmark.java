@@ -0,0 +1,131 @@
+package org.vaadin.uriactions.benchmark;
+
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.UriFragmentActionNavigatorWrapper;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link Navigator#navigateTo(String)} through a {@link UriFragmentActionNavigatorWrapper} for
+ * differently shaped action mapper trees. Run with
+ * <pre>
+ *     mvn -Pjmh test-compile exec:exec
+ * </pre>
+ * The GC profiler is enabled by default, so that the allocation rate per navigation is reported as {@code
+ * gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NavigationBenchmark {
+    private static final String FALLBACK_VIEW = "classic_view";
+
+    /**
+     * Number of action mappers contained in the action mapper tree.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int mapperCount;
+
+    /**
+     * {@code FLAT}: all action mappers are located on the root level of the tree. {@code NESTED}: the tree consists of
+     * chains of three nested action mappers, each of which has parameters.
+     */
+    @Param({"FLAT", "NESTED"})
+    public TreeShape treeShape;
+
+    /**
+     * {@code RESOLVABLE}: the URI fragment is resolved by the action mapper tree. {@code FALLBACK}: the URI fragment is
+     * handled by a view added to the wrapped navigator with {@link Navigator#addView(String, View)}.
+     */
+    @Param({"RESOLVABLE", "FALLBACK"})
+    public FragmentKind fragmentKind;
+
+    private Navigator navigator;
+    private String fragment;
+
+    public enum TreeShape {
+        FLAT, NESTED
+    }
+
+    public enum FragmentKind {
+        RESOLVABLE, FALLBACK
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final UriFragmentActionNavigatorWrapper wrapper =
+                new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), view -> {
+                });
+        wrapper.setUriActionMapperTree(treeShape == TreeShape.FLAT ? buildFlatTree() : buildNestedTree());
+        navigator = wrapper.getNavigator();
+        navigator.addView(FALLBACK_VIEW, (View) event -> {
+        });
+
+        if (fragmentKind == FragmentKind.FALLBACK) {
+            fragment = FALLBACK_VIEW;
+        } else if (treeShape == TreeShape.FLAT) {
+            fragment = "/route" + (mapperCount - 1);
+        } else {
+            fragment = "/customer" + (mapperCount / 3 - 1) + "/id/4711/order/orderId/42/item/itemId/7/quantity/3";
+        }
+    }
+
+    @Benchmark
+    public void navigate() {
+        navigator.navigateTo(fragment);
+    }
+
+    private UriActionMapperTree buildFlatTree() {
+        UriActionMapperTree.MapperTreeBuilder builder = UriActionMapperTree.create().buildMapperTree();
+        for (int i = 0; i < mapperCount; i++) {
+            builder = builder.map("route" + i).onActionFactory(BenchmarkActionCommand::new).finishMapper();
+        }
+        return builder.build();
+    }
+
+    private UriActionMapperTree buildNestedTree() {
+        UriActionMapperTree.MapperTreeBuilder builder = UriActionMapperTree.create().buildMapperTree();
+        for (int i = 0; i < Math.max(mapperCount / 3, 1); i++) {
+            builder = builder.mapSubtree("customer" + i)
+                    .withSingleValuedParameter("id").forType(Long.class).noDefault()
+                    .onSubtree()
+                    .mapSubtree("order")
+                    .withSingleValuedParameter("orderId").forType(Long.class).noDefault()
+                    .onSubtree()
+                    .map("item")
+                    .onActionFactory(BenchmarkActionCommand::new)
+                    .withSingleValuedParameter("itemId").forType(Long.class).noDefault()
+                    .withSingleValuedParameter("quantity").forType(Integer.class).noDefault()
+                    .finishMapper()
+                    .finishMapper()
+                    .finishMapper();
+        }
+        return builder.build();
+    }
+
+    public static class BenchmarkActionCommand implements UriActionCommand {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.vaadin.uriactions.benchmark;
+
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.CompiledUriActionMapperTree;
+import org.vaadin.uriactions.UriFragmentActionNavigatorWrapper;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory allocated per navigation by a {@link UriFragmentActionNavigatorWrapper} in relation to a plain
+ * {@link Navigator}. Run with
+ * <pre>
+ *     mvn -Pjmh test-compile exec:exec -Djmh.benchmarks=ViewAllocationBenchmark
+ * </pre>
+ * and compare the values of {@code gc.alloc.rate.norm} reported by the GC profiler:
+ * <ul>
+ * <li>{@code plainNavigator}: a plain navigator showing a view added with {@link Navigator#addView(String, View)}.
+ * This is the allocation baseline of the navigator itself, e. g. for its view change events.</li>
+ * <li>{@code fallbackView}: the same view shown by a navigator wrapper, i. e. the URI fragment is rejected by the
+ * action mapper tree's root index. This should allocate no more than the baseline.</li>
+ * <li>{@code actionCommand}: a URI fragment resolved to an action command. Since the wrapper reuses its {@link
+ * org.vaadin.uriactions.ActionExecutionView}s, this should only exceed the baseline by the allocations of the action
+ * mapper tree's fragment interpretation, including the action command itself.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ViewAllocationBenchmark {
+    private static final String VIEW_NAME = "classic_view";
+    private static final CompiledUriActionMapperTree MAPPER_TREE = CompiledUriActionMapperTree.compile(
+            UriActionMapperTree.create().buildMapperTree()
+                    .map("action").onActionFactory(BenchmarkActionCommand::new).finishMapper()
+                    .build());
+
+    private Navigator plainNavigator;
+    private Navigator wrappedNavigator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plainNavigator = new Navigator(new TestUI(), new TestNavigationStateHandler(), view -> {
+        });
+        plainNavigator.addView(VIEW_NAME, (View) event -> {
+        });
+
+        final UriFragmentActionNavigatorWrapper wrapper =
+                new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), view -> {
+                });
+        wrapper.setUriActionMapperTree(MAPPER_TREE);
+        wrappedNavigator = wrapper.getNavigator();
+        wrappedNavigator.addView(VIEW_NAME, (View) event -> {
+        });
+    }
+
+    @Benchmark
+    public void plainNavigator() {
+        plainNavigator.navigateTo(VIEW_NAME);
+    }
+
+    @Benchmark
+    public void fallbackView() {
+        wrappedNavigator.navigateTo(VIEW_NAME);
+    }
+
+    @Benchmark
+    public void actionCommand() {
+        wrappedNavigator.navigateTo("/action");
+    }
+
+    public static class BenchmarkActionCommand implements UriActionCommand {
+        @Override
+        public void run() {
+        }
+    }
+}
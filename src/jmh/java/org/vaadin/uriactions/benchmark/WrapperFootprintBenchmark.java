@@ -0,0 +1,87 @@
+package org.vaadin.uriactions.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.CompiledUriActionMapperTree;
+import org.vaadin.uriactions.UriFragmentActionNavigatorWrapper;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory allocated for each new {@link UriFragmentActionNavigatorWrapper} which is passed the
+ * application's action mapper tree, i. e. the footprint a new UI adds to its session. Run with
+ * <pre>
+ *     mvn -Pjmh test-compile exec:exec -Djmh.benchmarks=WrapperFootprintBenchmark
+ * </pre>
+ * and compare the values of {@code gc.alloc.rate.norm} reported by the GC profiler:
+ * <ul>
+ * <li>{@code ownCompiledMapperTree}: every wrapper gets a compiled mapper tree of its own. This is the footprint of
+ * a wrapper which derives its own routing data from the action mapper tree.</li>
+ * <li>{@code sharedMapperTree}: every wrapper is passed the same {@link UriActionMapperTree} with {@link
+ * UriFragmentActionNavigatorWrapper#setUriActionMapperTree(UriActionMapperTree)}. Since the compiled form is
+ * memoized, this should allocate no more than {@code sharedCompiledMapperTree}.</li>
+ * <li>{@code sharedCompiledMapperTree}: every wrapper is passed the same application-scoped {@link
+ * CompiledUriActionMapperTree}.</li>
+ * </ul>
+ * Each benchmark keeps the latest wrapper alive, as a session would, so that a memoized compiled mapper tree remains in
+ * use between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WrapperFootprintBenchmark {
+    private static final int ROOT_MAPPER_COUNT = 64;
+    private static final UriActionMapperTree MAPPER_TREE = buildMapperTree();
+    private static final CompiledUriActionMapperTree COMPILED_MAPPER_TREE =
+            CompiledUriActionMapperTree.compile(MAPPER_TREE, 256);
+
+    private UriFragmentActionNavigatorWrapper latestWrapper;
+
+    @Benchmark
+    public UriFragmentActionNavigatorWrapper ownCompiledMapperTree() {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setUriActionMapperTree(CompiledUriActionMapperTree.compile(MAPPER_TREE, 256));
+        return latestWrapper = wrapper;
+    }
+
+    @Benchmark
+    public UriFragmentActionNavigatorWrapper sharedMapperTree() {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setUriActionMapperTree(MAPPER_TREE);
+        return latestWrapper = wrapper;
+    }
+
+    @Benchmark
+    public UriFragmentActionNavigatorWrapper sharedCompiledMapperTree() {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setUriActionMapperTree(COMPILED_MAPPER_TREE);
+        return latestWrapper = wrapper;
+    }
+
+    private static UriFragmentActionNavigatorWrapper createWrapper() {
+        return new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), view -> {
+        });
+    }
+
+    private static UriActionMapperTree buildMapperTree() {
+        UriActionMapperTree.MapperTreeBuilder builder = UriActionMapperTree.create().buildMapperTree();
+        for (int i = 0; i < ROOT_MAPPER_COUNT; i++) {
+            builder = builder.map("view" + i).onActionFactory(ViewAllocationBenchmark.BenchmarkActionCommand::new)
+                    .finishMapper();
+        }
+        return builder.build();
+    }
+}
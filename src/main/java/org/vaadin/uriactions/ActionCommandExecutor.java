@@ -0,0 +1,78 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.ui.UI;
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+/**
+ * Strategy used by the {@link ActionExecutionView} to execute its {@link UriActionCommand}.
+ */
+interface ActionCommandExecutor {
+    /**
+     * Executes the given action command.
+     *
+     * @param uriFragment the URI fragment which has been resolved to the action command
+     * @param command     the action command to be executed
+     * @param ui          the {@link UI} for which the action command is executed
+     * @param observer    the observer to be notified when the action command has finished
+     */
+    void execute(String uriFragment, UriActionCommand command, UI ui, ExecutionObserver observer);
+
+    /**
+     * Cancels the action command which is currently executed by this executor, if any. This is called when the
+     * navigator moves on to a view which has not been resolved by the action mapper tree.
+     */
+    default void cancel() {
+    }
+
+    /**
+     * Observer which is notified by an {@link ActionCommandExecutor} when an action command is about to be started and
+     * when it has finished. Before an action command is started, the observer decides whether the command is admitted
+     * for execution. If it is not admitted, the executor runs the fallback command provided by {@link
+     * #rejected(String, UriActionCommand)} instead, and {@link #executionFinished(String, UriActionCommand, long,
+     * Throwable)} is not invoked.
+     */
+    interface ExecutionObserver {
+        /**
+         * Invoked right before the given action command is started.
+         *
+         * @param uriFragment the URI fragment which has been resolved to the action command
+         * @param command     the action command to be started
+         * @return {@code true} if the action command may be executed
+         */
+        default boolean admit(final String uriFragment, final UriActionCommand command) {
+            return true;
+        }
+
+        /**
+         * Invoked when the given action command has not been admitted for execution.
+         *
+         * @param uriFragment the URI fragment which has been resolved to the action command
+         * @param command     the rejected action command
+         * @return the action command to be run instead or {@code null} if nothing is to be run
+         */
+        default UriActionCommand rejected(final String uriFragment, final UriActionCommand command) {
+            return null;
+        }
+
+        /**
+         * Invoked when the given action command has finished.
+         *
+         * @param uriFragment   the URI fragment which has been resolved to the action command
+         * @param command       the finished action command
+         * @param durationNanos the execution time of the action command in nanoseconds
+         * @param failure       the exception thrown by the action command or {@code null} if it has been executed
+         *                      successfully
+         */
+        void executionFinished(String uriFragment, UriActionCommand command, long durationNanos, Throwable failure);
+
+        /**
+         * Invoked instead of {@link #executionFinished(String, UriActionCommand, long, Throwable)} when the given
+         * action command has been started but has been cancelled by a newer navigation before it has finished.
+         *
+         * @param uriFragment the URI fragment which has been resolved to the action command
+         * @param command     the cancelled action command
+         */
+        default void executionCancelled(final String uriFragment, final UriActionCommand command) {
+        }
+    }
+}
@@ -14,22 +14,47 @@ import org.roklib.urifragmentrouting.UriActionCommand;
  * executed {@link UriActionCommand}. As explained in the {@link UriFragmentActionNavigatorWrapper}, a reference to this
  * view can be obtained with a {@link ViewChangeListener}. The currently executed action command object can be obtained
  * from this view with {@link #getUriActionCommand()}.
+ * <p>
+ * To avoid allocating a new view for every navigation, the navigator wrapper reuses its execution views. Within a
+ * {@link ViewChangeListener} the old and the new view of a {@link ViewChangeListener.ViewChangeEvent} are always
+ * distinct objects providing their respective action commands. A reference to an execution view should, however, not
+ * be kept beyond the view change, since the view will be bound to another action command by a later navigation. The
+ * action command is not serialized with the view, so a deserialized view only provides its URI fragment. The view
+ * refers to the interned {@link UriFragment}, so that the views of all sessions share the same URI fragment objects.
  *
  * @see UriFragmentActionNavigatorWrapper
  */
 public class ActionExecutionView implements View {
-    private final UriActionCommand command;
+    private UriFragment uriFragment;
+    private transient UriActionCommand command;
+    private transient ActionCommandExecutor executor;
+    private transient ActionCommandExecutor.ExecutionObserver observer;
+
+    ActionExecutionView() {
+    }
 
-    ActionExecutionView(final UriActionCommand command) {
+    /**
+     * Binds this view to the action command to be executed when the view is entered. Since the navigator wrapper reuses
+     * its execution views (see {@link ActionExecutionViewPool}), a view is bound anew for each navigation it is used
+     * for.
+     */
+    void bind(final UriFragment uriFragment, final UriActionCommand command, final ActionCommandExecutor executor,
+              final ActionCommandExecutor.ExecutionObserver observer) {
         if (command == null) {
             throw new IllegalArgumentException("action command object must not be null");
         }
+        if (executor == null) {
+            throw new IllegalArgumentException("action command executor must not be null");
+        }
+        this.uriFragment = uriFragment;
         this.command = command;
+        this.executor = executor;
+        this.observer = observer;
     }
 
     @Override
     public void enter(final ViewChangeListener.ViewChangeEvent event) {
-        command.run();
+        executor.execute(uriFragment.getValue(), command, event.getNavigator().getUI(), observer);
     }
 
     /**
@@ -37,11 +62,31 @@ public class ActionExecutionView implements View {
      * com.vaadin.navigator.Navigator} wrapped in the {@link UriFragmentActionNavigatorWrapper}. You should not invoke
      * method {@link UriActionCommand#run()} on this object, since executing the action command object is already taken
      * care of by this view in {@link #enter(ViewChangeListener.ViewChangeEvent)}.
+     * <p>
+     * If asynchronous execution is enabled on the {@link UriFragmentActionNavigatorWrapper}, the returned action
+     * command may still be running when this method is called.
      *
      * @return the current {@link UriActionCommand}
      */
     public UriActionCommand getUriActionCommand() {
         return command;
     }
-}
 
+    /**
+     * Provides the URI fragment which has been resolved to the action command of this view.
+     *
+     * @return the URI fragment of this view
+     */
+    public String getUriFragment() {
+        return uriFragment == null ? null : uriFragment.getValue();
+    }
+
+    /**
+     * Provides the interned URI fragment which has been resolved to the action command of this view.
+     *
+     * @return the interned URI fragment of this view
+     */
+    UriFragment getInternedUriFragment() {
+        return uriFragment;
+    }
+}
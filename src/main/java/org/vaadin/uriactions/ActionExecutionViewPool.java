@@ -0,0 +1,81 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+
+import java.util.Arrays;
+
+/**
+ * Pool of reusable {@link ActionExecutionView}s of a single navigator wrapper. Since an execution view only carries the
+ * resolved action command from the view provider to the navigator, there is no need to allocate a new view for every
+ * navigation. Instead, a view is reused as soon as it is no longer referenced by an ongoing view change.
+ * <p>
+ * A view is in use while it is pending (see {@link PendingNavigations}), while it has been handed over to the
+ * navigator but has not been shown yet, or while it is one of the two views most recently shown by the navigator. A
+ * view handed over to the navigator is bound to its view change while the
+ * {@link com.vaadin.navigator.ViewChangeListener}s are asked whether the view change may take place; a listener may
+ * start a nested navigation and let the outer one continue afterwards. The two views most recently shown are the new
+ * and the old view of the latest view change, which may still be inspected by
+ * {@link com.vaadin.navigator.ViewChangeListener}s, even if one of these listeners starts a nested navigation. Hence,
+ * in the common case of one navigation at a time, three views are used in rotation. Nested navigations may need some
+ * more views. Up to {@value #MAX_POOL_SIZE} views are pooled; if all of them are in use, a new view is allocated which
+ * is not pooled.
+ */
+final class ActionExecutionViewPool {
+    static final int MAX_POOL_SIZE = 4;
+
+    private final ActionExecutionView[] views = new ActionExecutionView[MAX_POOL_SIZE];
+    private final boolean[] inFlight = new boolean[MAX_POOL_SIZE];
+    private int size;
+    private View shownView;
+    private View previouslyShownView;
+
+    /**
+     * Provides an execution view which is currently not in use.
+     *
+     * @param pendingNavigations the pending navigations whose views are in use
+     * @return an unused execution view which has to be bound to an action command before it is handed over to the
+     * navigator
+     */
+    synchronized ActionExecutionView acquire(final PendingNavigations pendingNavigations) {
+        for (int i = 0; i < size; i++) {
+            final ActionExecutionView view = views[i];
+            if (!inFlight[i] && view != shownView && view != previouslyShownView
+                    && !pendingNavigations.contains(view)) {
+                return view;
+            }
+        }
+        final ActionExecutionView view = new ActionExecutionView();
+        if (size < MAX_POOL_SIZE) {
+            views[size++] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Notifies this pool that the given view has been handed over to the navigator. The view remains in use until the
+     * next view is shown.
+     *
+     * @param view the view handed over to the navigator
+     */
+    synchronized void viewTaken(final ActionExecutionView view) {
+        for (int i = 0; i < size; i++) {
+            if (views[i] == view) {
+                inFlight[i] = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifies this pool that the navigator shows the given view. This view and the view shown before remain in use
+     * until the next view is shown. Views handed over to the navigator but not shown are released as well, since their
+     * view changes have either been aborted by a listener at that point or are about to show their views right away.
+     *
+     * @param view the view shown by the navigator
+     */
+    synchronized void viewShown(final View view) {
+        previouslyShownView = shownView;
+        shownView = view;
+        Arrays.fill(inFlight, false);
+    }
+}
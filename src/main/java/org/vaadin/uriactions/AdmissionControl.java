@@ -0,0 +1,251 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Admission control for expensive action commands, such as report generation or bulk exports, which could overload the
+ * backend if a user or a bot triggers them in a loop. An admission control consists of {@link AdmissionRule}s which
+ * apply an {@link AdmissionLimit} to the action commands of a given class or to the URI fragments matching a given
+ * route template. When a resolved action command is about to be executed, the first rule which applies to it decides
+ * whether the command is admitted. A command which is not admitted is not executed. Instead, the {@link
+ * RejectedNavigationHandler} of the admission control may provide a fallback action command, e. g. one which shows a
+ * "please try again later" notification. Action commands to which no rule applies are always admitted.
+ * <p>
+ * An admission control is set on a navigator wrapper with {@link UriFragmentActionNavigatorWrapper#setAdmissionControl(AdmissionControl)}.
+ * All navigator wrappers using the same admission control share its counters. Hence, the scope of the limits is
+ * determined by how the admission control is shared: a single admission control for all wrappers of an application
+ * protects the backend globally, whereas an admission control per {@link com.vaadin.server.VaadinSession} limits each
+ * user separately across all of the user's browser tabs. Since the {@link Builder} can build any number of independent
+ * admission controls with the same rules, it can be kept as a constant:
+ * <pre>
+ *    private static final AdmissionControl.Builder ADMISSION_RULES = AdmissionControl.builder()
+ *        .limitCommand(ExportActionCommand.class, AdmissionLimit.rate(10, 1, TimeUnit.MINUTES).withMaxInFlight(1))
+ *        .limitRoute("/reports/{id}", AdmissionLimit.maxInFlight(2))
+ *        .onRejection((uriFragment, command) -&gt; new ShowNotificationCommand("Please try again later"));
+ *
+ *    AdmissionControl admissionControl = session.getAttribute(AdmissionControl.class);
+ *    if (admissionControl == null) {
+ *        admissionControl = ADMISSION_RULES.build();
+ *        session.setAttribute(AdmissionControl.class, admissionControl);
+ *    }
+ *    navigatorWrapper.setAdmissionControl(admissionControl);
+ * </pre>
+ * An admission control which is shared by all wrappers of the application has to be built with {@link
+ * Builder#buildShared()} and registered with the {@link UriActionRegistry}, so that a serialized session refers to it
+ * by its key. Otherwise, every deserialized session would get its own copy with its own counters. For this reason,
+ * serializing such an admission control fails if it is not registered.
+ * <p>
+ * An execution counts as in-flight from the moment it is started until the action command has finished, so that
+ * action commands which are cancelled or superseded before they are started do not occupy an in-flight slot.
+ *
+ * @see AdmissionRule
+ */
+public final class AdmissionControl implements Serializable {
+    private final AdmissionRule[] rules;
+    private final RejectedNavigationHandler rejectedNavigationHandler;
+    private final boolean shared;
+
+    private AdmissionControl(final AdmissionRule[] rules, final RejectedNavigationHandler rejectedNavigationHandler,
+                             final boolean shared) {
+        this.rules = rules;
+        this.rejectedNavigationHandler = rejectedNavigationHandler;
+        this.shared = shared;
+    }
+
+    /**
+     * Creates a builder for admission controls.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Provides the rules of this admission control in the order in which they are checked.
+     *
+     * @return an unmodifiable list of the rules
+     */
+    public List<AdmissionRule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    /**
+     * Tries to admit the execution of the given action command. If it is admitted, {@link #release(String,
+     * UriActionCommand)} has to be called when the execution has finished.
+     */
+    boolean tryAcquire(final String uriFragment, final UriActionCommand command) {
+        final AdmissionRule rule = findRule(uriFragment, command);
+        return rule == null || rule.tryAcquire();
+    }
+
+    void release(final String uriFragment, final UriActionCommand command) {
+        final AdmissionRule rule = findRule(uriFragment, command);
+        if (rule != null) {
+            rule.release();
+        }
+    }
+
+    /**
+     * Provides the fallback action command for a rejected action command.
+     */
+    UriActionCommand rejected(final String uriFragment, final UriActionCommand command) {
+        return rejectedNavigationHandler == null ? null : rejectedNavigationHandler.navigationRejected(uriFragment, command);
+    }
+
+    /**
+     * Rejects the serialization of an application-scoped admission control. A registered admission control is written
+     * as its key by the navigator wrapper, so that this method is not called for it.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        if (shared) {
+            throw new NotSerializableException("shared admission control is not registered with "
+                    + UriActionRegistry.class.getName());
+        }
+        out.defaultWriteObject();
+    }
+
+    private AdmissionRule findRule(final String uriFragment, final UriActionCommand command) {
+        for (final AdmissionRule rule : rules) {
+            if (rule.appliesTo(uriFragment, command)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Handler which provides the fallback action command for a navigation whose action command has not been admitted
+     * for execution.
+     */
+    @FunctionalInterface
+    public interface RejectedNavigationHandler extends Serializable {
+        /**
+         * Provides the action command to be executed instead of the rejected one. This action command is executed
+         * while the lock on the current {@link com.vaadin.server.VaadinSession} is held and is not subject to
+         * admission control itself.
+         *
+         * @param uriFragment     the URI fragment which has been resolved to the rejected action command
+         * @param rejectedCommand the rejected action command
+         * @return the fallback action command or {@code null} if nothing is to be executed
+         */
+        UriActionCommand navigationRejected(String uriFragment, UriActionCommand rejectedCommand);
+    }
+
+    /**
+     * Builder for {@link AdmissionControl}s. Each call of {@link #build()} creates a new admission control with its own
+     * counters.
+     */
+    public static final class Builder {
+        private final List<RuleDefinition> ruleDefinitions = new ArrayList<>();
+        private RejectedNavigationHandler rejectedNavigationHandler;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule which limits the execution of all action commands of the given class, including its subclasses.
+         *
+         * @param commandClass the class of the action commands to be limited
+         * @param limit        the limit to be applied
+         * @return this builder
+         */
+        public Builder limitCommand(final Class<? extends UriActionCommand> commandClass, final AdmissionLimit limit) {
+            if (commandClass == null) {
+                throw new IllegalArgumentException("command class must not be null");
+            }
+            return addRule(commandClass, null, limit);
+        }
+
+        /**
+         * Adds a rule which limits the execution of all action commands resolved from URI fragments matching the given
+         * route template, such as {@code /reports/{id}/export}. Each parameter of the template matches a non-empty
+         * path segment.
+         *
+         * @param routeTemplate the route template
+         * @param limit         the limit to be applied
+         * @return this builder
+         * @see UriFragmentTemplate#matches(String)
+         */
+        public Builder limitRoute(final String routeTemplate, final AdmissionLimit limit) {
+            if (routeTemplate == null) {
+                throw new IllegalArgumentException("route template must not be null");
+            }
+            return addRule(null, UriFragmentTemplate.compile(routeTemplate), limit);
+        }
+
+        private Builder addRule(final Class<? extends UriActionCommand> commandClass,
+                                final UriFragmentTemplate routeTemplate, final AdmissionLimit limit) {
+            if (limit == null) {
+                throw new IllegalArgumentException("limit must not be null");
+            }
+            ruleDefinitions.add(new RuleDefinition(commandClass, routeTemplate, limit));
+            return this;
+        }
+
+        /**
+         * Sets the handler which provides the fallback action command for rejected navigations. If no handler is set,
+         * nothing is executed for a rejected navigation.
+         *
+         * @param rejectedNavigationHandler the handler for rejected navigations. May be {@code null}.
+         * @return this builder
+         */
+        public Builder onRejection(final RejectedNavigationHandler rejectedNavigationHandler) {
+            this.rejectedNavigationHandler = rejectedNavigationHandler;
+            return this;
+        }
+
+        /**
+         * Builds a new admission control with the rules added so far. The admission control is serialized together
+         * with the session, so it is meant to be shared by the wrappers of a single {@link
+         * com.vaadin.server.VaadinSession} at most.
+         *
+         * @return the new admission control
+         */
+        public AdmissionControl build() {
+            return build(false);
+        }
+
+        /**
+         * Builds a new admission control with the rules added so far which is to be shared by all wrappers of the
+         * application. The admission control has to be registered with the {@link UriActionRegistry} for the sessions
+         * to be serializable.
+         *
+         * @return the new admission control
+         */
+        public AdmissionControl buildShared() {
+            return build(true);
+        }
+
+        private AdmissionControl build(final boolean shared) {
+            final AdmissionRule[] rules = new AdmissionRule[ruleDefinitions.size()];
+            for (int i = 0; i < rules.length; i++) {
+                final RuleDefinition definition = ruleDefinitions.get(i);
+                rules[i] = new AdmissionRule(definition.commandClass, definition.routeTemplate, definition.limit);
+            }
+            return new AdmissionControl(rules, rejectedNavigationHandler, shared);
+        }
+    }
+
+    private static final class RuleDefinition {
+        private final Class<? extends UriActionCommand> commandClass;
+        private final UriFragmentTemplate routeTemplate;
+        private final AdmissionLimit limit;
+
+        private RuleDefinition(final Class<? extends UriActionCommand> commandClass,
+                               final UriFragmentTemplate routeTemplate, final AdmissionLimit limit) {
+            this.commandClass = commandClass;
+            this.routeTemplate = routeTemplate;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.vaadin.uriactions;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable limit for the execution of expensive action commands which is enforced by an {@link AdmissionControl}. A
+ * limit consists of a rate limit and a maximum number of concurrently executed action commands, both of which are
+ * optional:
+ * <pre>
+ *    // at most 10 executions per minute, at most 2 of them at the same time
+ *    AdmissionLimit limit = AdmissionLimit.rate(10, 1, TimeUnit.MINUTES).withMaxInFlight(2);
+ * </pre>
+ * The rate limit is a token bucket: the bucket holds up to {@link #getBurst()} permits, one permit is consumed by each
+ * admitted execution, and permits are refilled evenly over time at the configured rate.
+ *
+ * @see AdmissionControl
+ */
+public final class AdmissionLimit implements Serializable {
+    /**
+     * Value of {@link #getMaxInFlight()} if the number of concurrently executed action commands is not limited.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final long intervalNanos;
+    private final int burst;
+    private final int maxInFlight;
+
+    private AdmissionLimit(final long intervalNanos, final int burst, final int maxInFlight) {
+        this.intervalNanos = intervalNanos;
+        this.burst = burst;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Creates a rate limit which admits the given number of executions per period. Up to {@code permits} executions
+     * may be admitted in a burst.
+     *
+     * @param permits the number of executions admitted per period
+     * @param period  the length of the period
+     * @param unit    the time unit of the period
+     * @return the new limit
+     */
+    public static AdmissionLimit rate(final int permits, final long period, final TimeUnit unit) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("number of permits must be positive");
+        }
+        if (period < 1) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("time unit must not be null");
+        }
+        return new AdmissionLimit(Math.max(1, unit.toNanos(period) / permits), permits, UNLIMITED);
+    }
+
+    /**
+     * Creates a limit for the number of concurrently executed action commands without a rate limit.
+     *
+     * @param maxInFlight the maximum number of concurrently executed action commands
+     * @return the new limit
+     */
+    public static AdmissionLimit maxInFlight(final int maxInFlight) {
+        return new AdmissionLimit(0, 0, UNLIMITED).withMaxInFlight(maxInFlight);
+    }
+
+    /**
+     * Returns a copy of this limit with the given maximum number of concurrently executed action commands.
+     *
+     * @param maxInFlight the maximum number of concurrently executed action commands
+     * @return the new limit
+     */
+    public AdmissionLimit withMaxInFlight(final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maximum number of in-flight executions must be positive");
+        }
+        return new AdmissionLimit(intervalNanos, burst, maxInFlight);
+    }
+
+    /**
+     * Returns a copy of this rate limit with the given burst size.
+     *
+     * @param burst the maximum number of executions admitted at once
+     * @return the new limit
+     * @throws IllegalStateException if this limit has no rate limit
+     */
+    public AdmissionLimit withBurst(final int burst) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be positive");
+        }
+        if (!isRateLimited()) {
+            throw new IllegalStateException("limit has no rate limit");
+        }
+        return new AdmissionLimit(intervalNanos, burst, maxInFlight);
+    }
+
+    /**
+     * @return {@code true} if this limit has a rate limit
+     */
+    public boolean isRateLimited() {
+        return intervalNanos > 0;
+    }
+
+    /**
+     * @return the time in nanoseconds after which a consumed permit is refilled or zero if there is no rate limit
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * @return the maximum number of executions admitted at once or zero if there is no rate limit
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return the maximum number of concurrently executed action commands or {@link #UNLIMITED}
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionLimit{intervalNanos=" + intervalNanos + ", burst=" + burst
+                + ", maxInFlight=" + (maxInFlight == UNLIMITED ? "unlimited" : String.valueOf(maxInFlight)) + '}';
+    }
+}
@@ -0,0 +1,169 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single rule of an {@link AdmissionControl} which applies an {@link AdmissionLimit} to the action commands of a
+ * given class or to the URI fragments matching a given {@link UriFragmentTemplate}. The rule keeps the counters which
+ * are shared by all navigator wrappers using the same {@link AdmissionControl}.
+ * <p>
+ * All counters are lock-free. The rate limit is implemented as a token bucket whose whole state is a single timestamp,
+ * the theoretical arrival time of the next execution, which is advanced with a compare-and-set operation. The number
+ * of in-flight executions is checked and incremented with a compare-and-set operation as well. The statistics of
+ * admitted and rejected executions are kept in striped {@link LongAdder}s, since they are updated on every navigation
+ * but only read for monitoring.
+ * <p>
+ * The counters are not serialized. A deserialized rule starts with a full token bucket and no in-flight executions.
+ */
+public final class AdmissionRule implements Serializable {
+    private final Class<? extends UriActionCommand> commandClass;
+    private final UriFragmentTemplate routeTemplate;
+    private final AdmissionLimit limit;
+    private transient AtomicLong theoreticalArrivalNanos;
+    private transient AtomicInteger inFlight;
+    private transient LongAdder admitted;
+    private transient LongAdder rejected;
+
+    AdmissionRule(final Class<? extends UriActionCommand> commandClass, final UriFragmentTemplate routeTemplate,
+                  final AdmissionLimit limit) {
+        this.commandClass = commandClass;
+        this.routeTemplate = routeTemplate;
+        this.limit = limit;
+        initializeCounters();
+    }
+
+    private void initializeCounters() {
+        theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+        inFlight = new AtomicInteger();
+        admitted = new LongAdder();
+        rejected = new LongAdder();
+    }
+
+    /**
+     * @return the class of the action commands limited by this rule or {@code null} if this rule limits a route
+     */
+    public Class<? extends UriActionCommand> getCommandClass() {
+        return commandClass;
+    }
+
+    /**
+     * @return the template of the URI fragments limited by this rule or {@code null} if this rule limits a command
+     * class
+     */
+    public UriFragmentTemplate getRouteTemplate() {
+        return routeTemplate;
+    }
+
+    /**
+     * @return the limit enforced by this rule
+     */
+    public AdmissionLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of executions admitted by this rule
+     */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * @return the number of executions rejected by this rule
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of admitted executions which have not finished yet
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    boolean appliesTo(final String uriFragment, final UriActionCommand command) {
+        if (commandClass != null) {
+            return commandClass.isInstance(command);
+        }
+        return routeTemplate.matches(uriFragment);
+    }
+
+    /**
+     * Tries to admit an execution. If the execution is admitted, {@link #release()} has to be called when it has
+     * finished.
+     */
+    boolean tryAcquire() {
+        if (!tryAcquireInFlight()) {
+            rejected.increment();
+            return false;
+        }
+        if (!tryAcquireRate()) {
+            release();
+            rejected.increment();
+            return false;
+        }
+        admitted.increment();
+        return true;
+    }
+
+    void release() {
+        while (true) {
+            final int current = inFlight.get();
+            // the admission control may have been replaced while the execution was running
+            if (current == 0 || inFlight.compareAndSet(current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryAcquireInFlight() {
+        final int maxInFlight = limit.getMaxInFlight();
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryAcquireRate() {
+        if (!limit.isRateLimited()) {
+            return true;
+        }
+        final long intervalNanos = limit.getIntervalNanos();
+        final long capacityNanos = intervalNanos * limit.getBurst();
+        while (true) {
+            final long now = System.nanoTime();
+            final long arrival = theoreticalArrivalNanos.get();
+            final long nextArrival = Math.max(arrival, now) + intervalNanos;
+            if (nextArrival - now > capacityNanos) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(arrival, nextArrival)) {
+                return true;
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initializeCounters();
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionRule{" + (commandClass != null ? "command=" + commandClass.getName()
+                : "route=" + routeTemplate.getTemplate()) + ", " + limit + '}';
+    }
+}
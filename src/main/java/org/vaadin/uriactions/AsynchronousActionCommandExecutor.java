@@ -0,0 +1,350 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link ActionCommandExecutor} which executes action commands with an {@link Executor}, i. e. outside of the lock on
+ * the current {@link VaadinSession}. When an action command has been executed, the registered {@link
+ * AsynchronousExecutionListener} is notified while the session lock is held. If a new action command is to be executed
+ * while the previous one is still running, the previous command is cancelled.
+ * <p>
+ * If coalescing is enabled (see {@link #setCoalescingWindow(long)}), a running action command is not cancelled by a
+ * newer navigation. Instead, the newer action command is held back until the running command has finished and, if a
+ * coalescing window is set, until this window has elapsed without another navigation. An action command which is
+ * still held back when the next navigation arrives is superseded and will never be executed. The listener is notified
+ * about such skipped commands with {@link AsynchronousExecutionListener#executionSkipped(String, UriActionCommand)}.
+ * <p>
+ * If an action command is not admitted for execution by the {@link ExecutionObserver} when it is about to be started,
+ * the fallback command provided by the observer is run while the session lock is held, and the listener is notified
+ * with {@link AsynchronousExecutionListener#executionSkipped(String, UriActionCommand)}.
+ * <p>
+ * The load phase of a {@link TwoPhaseUriActionCommand} is run outside of the session lock, too. Only its apply phase is
+ * run while the session lock is held.
+ */
+class AsynchronousActionCommandExecutor implements ActionCommandExecutor {
+    static final long NO_COALESCING = -1;
+
+    private final Executor executor;
+    private final Supplier<Executor> loaderExecutor;
+    private volatile AsynchronousExecutionListener listener;
+    private FutureTask<Void> currentExecution;
+    private PendingExecution pendingExecution;
+    private long coalescingWindowNanos = NO_COALESCING;
+
+    AsynchronousActionCommandExecutor(final Executor executor, final Supplier<Executor> loaderExecutor,
+                                      final AsynchronousExecutionListener listener) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.executor = executor;
+        this.loaderExecutor = loaderExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Provides the executor which is used when no executor has been specified by the user. This executor uses
+     * virtual threads if they are supported by the current Java runtime. Otherwise, a cached thread pool of daemon
+     * threads is used.
+     *
+     * @return the shared default executor
+     */
+    static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.DEFAULT_EXECUTOR;
+    }
+
+    void setListener(final AsynchronousExecutionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Enables or disables the coalescing of successive navigations.
+     *
+     * @param windowNanos the time in nanoseconds an action command is held back before it is started, zero to only
+     *                    coalesce action commands while another action command is running, or {@link #NO_COALESCING}
+     *                    to disable coalescing
+     */
+    synchronized void setCoalescingWindow(final long windowNanos) {
+        coalescingWindowNanos = windowNanos;
+    }
+
+    @Override
+    public void execute(final String uriFragment, final UriActionCommand command, final UI ui,
+                        final ExecutionObserver observer) {
+        final PendingExecution execution = new PendingExecution(uriFragment, command, ui, observer);
+        final PendingExecution skippedExecution;
+        FutureTask<Void> cancelledExecution = null;
+        FutureTask<Void> startedExecution = null;
+        synchronized (this) {
+            skippedExecution = takePendingExecution();
+            if (coalescingWindowNanos == NO_COALESCING) {
+                cancelledExecution = currentExecution;
+                startedExecution = createExecution(execution);
+                currentExecution = startedExecution;
+            } else {
+                pendingExecution = execution;
+                if (coalescingWindowNanos > 0) {
+                    // the timer thread only hands off to the default executor, so that it is never blocked by an
+                    // action command run with a direct executor
+                    execution.timer = CoalescingTimerHolder.TIMER.schedule(
+                            () -> getDefaultExecutor().execute(() -> windowElapsed(execution)),
+                            coalescingWindowNanos, TimeUnit.NANOSECONDS);
+                } else {
+                    execution.windowElapsed = true;
+                    startedExecution = takePendingExecutionIfIdle();
+                }
+            }
+        }
+        notifySkipped(skippedExecution);
+        if (cancelledExecution != null) {
+            cancelledExecution.cancel(true);
+        }
+        startExecution(startedExecution);
+    }
+
+    @Override
+    public void cancel() {
+        final PendingExecution skippedExecution;
+        final FutureTask<Void> cancelledExecution;
+        synchronized (this) {
+            skippedExecution = takePendingExecution();
+            cancelledExecution = currentExecution;
+            currentExecution = null;
+        }
+        notifySkipped(skippedExecution);
+        if (cancelledExecution != null) {
+            cancelledExecution.cancel(true);
+        }
+    }
+
+    private void windowElapsed(final PendingExecution execution) {
+        final FutureTask<Void> startedExecution;
+        synchronized (this) {
+            if (pendingExecution != execution) {
+                return;
+            }
+            execution.windowElapsed = true;
+            startedExecution = takePendingExecutionIfIdle();
+        }
+        startExecution(startedExecution);
+    }
+
+    private void executionFinished(final FutureTask<Void> execution) {
+        final FutureTask<Void> startedExecution;
+        synchronized (this) {
+            if (currentExecution != execution) {
+                return;
+            }
+            currentExecution = null;
+            startedExecution = takePendingExecutionIfIdle();
+        }
+        startExecution(startedExecution);
+    }
+
+    /**
+     * Takes the pending execution and makes it the current execution if no other execution is running and its
+     * coalescing window has elapsed. Must be called while holding the monitor of this executor. The returned execution
+     * has to be started with {@link #startExecution(FutureTask)} after the monitor has been released.
+     *
+     * @return the execution to be started or {@code null} if nothing is to be started
+     */
+    private FutureTask<Void> takePendingExecutionIfIdle() {
+        if (currentExecution != null || pendingExecution == null || !pendingExecution.windowElapsed) {
+            return null;
+        }
+        final PendingExecution execution = pendingExecution;
+        pendingExecution = null;
+        currentExecution = createExecution(execution);
+        return currentExecution;
+    }
+
+    /**
+     * Removes the pending execution and cancels its coalescing timer. Must be called while holding the monitor of
+     * this executor. The listener has to be notified with {@link #notifySkipped(PendingExecution)} after the monitor
+     * has been released.
+     *
+     * @return the removed pending execution or {@code null} if there was none
+     */
+    private PendingExecution takePendingExecution() {
+        final PendingExecution execution = pendingExecution;
+        if (execution == null) {
+            return null;
+        }
+        pendingExecution = null;
+        if (execution.timer != null) {
+            execution.timer.cancel(false);
+        }
+        return execution;
+    }
+
+    private void notifySkipped(final PendingExecution execution) {
+        final AsynchronousExecutionListener currentListener = listener;
+        if (execution != null && currentListener != null) {
+            runWithSessionLock(execution.ui,
+                    () -> currentListener.executionSkipped(execution.uriFragment, execution.command));
+        }
+    }
+
+    private FutureTask<Void> createExecution(final PendingExecution pending) {
+        return new FutureTask<Void>(() -> run(pending), null) {
+            @Override
+            protected void done() {
+                try {
+                    notifyListener(this, pending);
+                } finally {
+                    executionFinished(this);
+                }
+            }
+        };
+    }
+
+    /**
+     * Hands the given execution over to the executor. This is never called while holding the monitor of this
+     * executor, since a direct executor runs the action command in the calling thread, which then takes the session
+     * lock.
+     */
+    private void startExecution(final FutureTask<Void> execution) {
+        if (execution != null) {
+            executor.execute(execution);
+        }
+    }
+
+    private void run(final PendingExecution pending) {
+        final UriActionCommand command = pending.command;
+        if (!pending.observer.admit(pending.uriFragment, command)) {
+            pending.rejected = true;
+            final UriActionCommand fallbackCommand = pending.observer.rejected(pending.uriFragment, command);
+            if (fallbackCommand != null) {
+                runWithSessionLock(pending.ui, fallbackCommand::run);
+            }
+            return;
+        }
+        final long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            if (command instanceof TwoPhaseUriActionCommand) {
+                final TwoPhaseUriActionCommand twoPhaseCommand = (TwoPhaseUriActionCommand) command;
+                TwoPhaseExecution.load(twoPhaseCommand, loaderExecutor.get());
+                runWithSessionLock(pending.ui, () -> {
+                    // a cancelling navigation interrupts this thread while holding the session lock
+                    if (!Thread.currentThread().isInterrupted()) {
+                        twoPhaseCommand.apply();
+                    }
+                });
+            } else {
+                command.run();
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // a cancelling navigation interrupts this thread, possibly while the action command is still running
+            if (Thread.currentThread().isInterrupted()) {
+                pending.observer.executionCancelled(pending.uriFragment, command);
+            } else {
+                pending.observer.executionFinished(pending.uriFragment, command, System.nanoTime() - start, failure);
+            }
+        }
+    }
+
+    private void notifyListener(final FutureTask<Void> execution, final PendingExecution pending) {
+        final AsynchronousExecutionListener currentListener = listener;
+        if (currentListener == null) {
+            return;
+        }
+        final UriActionCommand command = pending.command;
+        final UI ui = pending.ui;
+        if (execution.isCancelled()) {
+            runWithSessionLock(ui, () -> currentListener.executionCancelled(command));
+            return;
+        }
+        try {
+            execution.get();
+            if (pending.rejected) {
+                runWithSessionLock(ui, () -> currentListener.executionSkipped(pending.uriFragment, command));
+                return;
+            }
+            runWithSessionLock(ui, () -> currentListener.executionCompleted(command));
+        } catch (ExecutionException e) {
+            runWithSessionLock(ui, () -> currentListener.executionFailed(command, e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the given task while holding the lock on the {@link VaadinSession} of the given {@link UI}. If the UI is
+     * not attached to a session, the task is run directly.
+     */
+    static void runWithSessionLock(final UI ui, final Runnable task) {
+        final VaadinSession session = ui == null ? null : ui.getSession();
+        if (session == null) {
+            task.run();
+            return;
+        }
+        session.lock();
+        try {
+            task.run();
+        } finally {
+            session.unlock();
+        }
+    }
+
+    /**
+     * An action command which has been resolved by the navigator but has not been started yet.
+     */
+    private static final class PendingExecution {
+        private final String uriFragment;
+        private final UriActionCommand command;
+        private final UI ui;
+        private final ExecutionObserver observer;
+        private boolean windowElapsed;
+        private ScheduledFuture<?> timer;
+        private volatile boolean rejected;
+
+        private PendingExecution(final String uriFragment, final UriActionCommand command, final UI ui,
+                                 final ExecutionObserver observer) {
+            this.uriFragment = uriFragment;
+            this.command = command;
+            this.ui = ui;
+            this.observer = observer;
+        }
+    }
+
+    private static final class CoalescingTimerHolder {
+        private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "uri-action-coalescing-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                final Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factoryMethod.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // virtual threads are not available in this Java runtime
+                return Executors.newCachedThreadPool(runnable -> {
+                    final Thread thread = new Thread(runnable, "uri-action-command-executor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
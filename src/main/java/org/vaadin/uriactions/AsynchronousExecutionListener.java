@@ -0,0 +1,53 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.io.Serializable;
+
+/**
+ * Listener which is notified about the outcome of {@link UriActionCommand}s which are executed asynchronously by a
+ * {@link UriFragmentActionNavigatorWrapper} (see {@link UriFragmentActionNavigatorWrapper#enableAsynchronousExecution(java.util.concurrent.Executor)}).
+ * <p>
+ * All methods of this listener are invoked while the lock on the {@link com.vaadin.server.VaadinSession} of the
+ * navigator's {@link com.vaadin.ui.UI} is held. It is therefore safe to modify the user interface from within these
+ * methods. This is the place where the results of an asynchronously executed action command should be applied to the
+ * user interface.
+ */
+public interface AsynchronousExecutionListener extends Serializable {
+    /**
+     * Invoked when the given action command has been executed successfully.
+     *
+     * @param command the executed action command
+     */
+    void executionCompleted(UriActionCommand command);
+
+    /**
+     * Invoked when the given action command has thrown an exception.
+     *
+     * @param command the failed action command
+     * @param failure the exception thrown by the action command
+     */
+    void executionFailed(UriActionCommand command, Throwable failure);
+
+    /**
+     * Invoked when the execution of the given action command has been cancelled because the navigator has navigated
+     * to another URI fragment in the meantime.
+     *
+     * @param command the cancelled action command
+     */
+    void executionCancelled(UriActionCommand command);
+
+    /**
+     * Invoked when the given action command will not be executed at all. This happens if the command has been
+     * superseded by a newer navigation before it could be started while navigation coalescing is enabled (see {@link
+     * UriFragmentActionNavigatorWrapper#enableNavigationCoalescing(long, java.util.concurrent.TimeUnit)}), or if the
+     * command has not been admitted for execution by the {@link AdmissionControl} of the navigator wrapper.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @param uriFragment the URI fragment which has been resolved to the skipped action command
+     * @param command     the skipped action command
+     */
+    default void executionSkipped(String uriFragment, UriActionCommand command) {
+    }
+}
@@ -0,0 +1,166 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Application-scoped, compiled form of a {@link UriActionMapperTree}. A compiled mapper tree bundles a {@link
+ * UriActionMapperTree} with all routing data which the {@link UriFragmentActionNavigatorWrapper} derives from it, such
+ * as the index over the mapper tree's root action mappers. The index is computed exactly once when the mapper tree is
+ * compiled. Afterwards, only the index's cache of unresolvable URI fragments and the memoized {@link
+ * UriFragmentTemplate}s are modified.
+ * <p>
+ * A compiled mapper tree is thread-safe. It is intended to be created once per application (e. g. as a static
+ * singleton or with an application-scoped service) and to be shared by all navigator wrappers of this application
+ * using {@link UriFragmentActionNavigatorWrapper#setUriActionMapperTree(CompiledUriActionMapperTree)}. By that, each
+ * navigator wrapper only holds a reference to the shared routing data instead of deriving its own copy every time a
+ * new {@link com.vaadin.ui.UI} is initialized:
+ * <pre>
+ *    private final static CompiledUriActionMapperTree MAPPER_TREE = CompiledUriActionMapperTree.compile(
+ *        UriActionMapperTree.create().buildMapperTree()
+ *            ...
+ *            .build());
+ *
+ *    protected void init(VaadinRequest request) {
+ *        UriFragmentActionNavigatorWrapper navigatorWrapper = new UriFragmentActionNavigatorWrapper(this);
+ *        navigatorWrapper.setUriActionMapperTree(MAPPER_TREE);
+ *    }
+ * </pre>
+ *
+ * @see UriFragmentActionNavigatorWrapper#setUriActionMapperTree(CompiledUriActionMapperTree)
+ */
+public final class CompiledUriActionMapperTree {
+    /**
+     * Compiled mapper trees created by {@link #compile(UriActionMapperTree)}, keyed by the mapper tree they have been
+     * compiled from. Both the mapper tree and its compiled form are only weakly referenced, so that an entry is removed
+     * as soon as the compiled mapper tree is no longer used.
+     */
+    private static final Map<UriActionMapperTree, WeakReference<CompiledUriActionMapperTree>> COMPILED_MAPPER_TREES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final UriActionMapperTree uriActionMapperTree;
+    private final MapperTreeIndex index;
+    private final ConcurrentMap<String, UriFragmentTemplate> uriFragmentTemplates = new ConcurrentHashMap<>();
+
+    private CompiledUriActionMapperTree(final UriActionMapperTree uriActionMapperTree, final MapperTreeIndex index) {
+        this.uriActionMapperTree = uriActionMapperTree;
+        this.index = index;
+    }
+
+    /**
+     * Compiles the given {@link UriActionMapperTree}. The compiled mapper tree remembers up to {@value
+     * MapperTreeIndex#DEFAULT_NEGATIVE_CACHE_SIZE} URI fragments which could not be resolved by the mapper tree.
+     * <p>
+     * The compiled form is memoized per mapper tree instance: as long as the compiled mapper tree is in use, this
+     * method returns the same object for the same mapper tree. Hence, navigator wrappers which are passed the same
+     * mapper tree with {@link UriFragmentActionNavigatorWrapper#setUriActionMapperTree(UriActionMapperTree)} share its
+     * routing data. Use {@link #compile(UriActionMapperTree, int)} to get a compiled mapper tree of its own.
+     *
+     * @param uriActionMapperTree the {@link UriActionMapperTree} to be compiled
+     * @return the compiled form of the given mapper tree
+     */
+    public static CompiledUriActionMapperTree compile(final UriActionMapperTree uriActionMapperTree) {
+        synchronized (COMPILED_MAPPER_TREES) {
+            final WeakReference<CompiledUriActionMapperTree> reference = COMPILED_MAPPER_TREES.get(uriActionMapperTree);
+            CompiledUriActionMapperTree compiledMapperTree = reference == null ? null : reference.get();
+            if (compiledMapperTree == null || compiledMapperTree.uriActionMapperTree != uriActionMapperTree) {
+                compiledMapperTree = compile(uriActionMapperTree, MapperTreeIndex.DEFAULT_NEGATIVE_CACHE_SIZE);
+                COMPILED_MAPPER_TREES.put(uriActionMapperTree, new WeakReference<>(compiledMapperTree));
+            }
+            return compiledMapperTree;
+        }
+    }
+
+    /**
+     * Compiles the given {@link UriActionMapperTree}.
+     *
+     * @param uriActionMapperTree the {@link UriActionMapperTree} to be compiled
+     * @param negativeCacheSize   the maximum number of URI fragments which could not be resolved by the mapper tree and
+     *                            which are remembered so that they are not interpreted again. May be zero to disable
+     *                            this cache.
+     * @return the compiled form of the given mapper tree
+     */
+    public static CompiledUriActionMapperTree compile(final UriActionMapperTree uriActionMapperTree, final int negativeCacheSize) {
+        return new CompiledUriActionMapperTree(uriActionMapperTree, MapperTreeIndex.build(uriActionMapperTree, negativeCacheSize));
+    }
+
+    /**
+     * Compiles the given {@link UriActionMapperTree} as the successor of this compiled mapper tree, e. g. to publish a
+     * new version of the application's routes with a {@link MapperTreePublisher}. The successor remembers as many
+     * unresolvable URI fragments as this compiled mapper tree. The {@link UriFragmentTemplate}s memoized by this
+     * compiled mapper tree are carried over to the successor if their first path segment is still the name of a root
+     * action mapper of the new mapper tree, so that they do not have to be compiled again. As with {@link
+     * #getUriFragmentTemplate(String)}, the remaining path of a template is not checked. This compiled mapper tree is
+     * not modified.
+     *
+     * @param uriActionMapperTree the new version of the {@link UriActionMapperTree}
+     * @return the compiled form of the given mapper tree
+     */
+    public CompiledUriActionMapperTree recompile(final UriActionMapperTree uriActionMapperTree) {
+        final CompiledUriActionMapperTree successor = compile(uriActionMapperTree, index.getNegativeCacheSize());
+        for (final UriFragmentTemplate template : uriFragmentTemplates.values()) {
+            if (successor.mayResolve(template)) {
+                successor.uriFragmentTemplates.putIfAbsent(template.getTemplate(), template);
+            }
+        }
+        return successor;
+    }
+
+    /**
+     * Returns the {@link UriActionMapperTree} this object has been compiled from.
+     *
+     * @return the compiled {@link UriActionMapperTree}
+     */
+    public UriActionMapperTree getUriActionMapperTree() {
+        return uriActionMapperTree;
+    }
+
+    /**
+     * Provides the compiled {@link UriFragmentTemplate} for the given template string. Each template is compiled only
+     * once and then memoized by this mapper tree, so that the template strings should be constants of the
+     * application. Only the first path segment of a template is checked against the index of this mapper tree, since
+     * the deeper action mappers can only be examined by interpreting a URI fragment. A template whose deeper path is
+     * not handled by this mapper tree is accepted, but the URI fragments assembled from it cannot be resolved.
+     *
+     * @param template a URI fragment of this mapper tree containing parameter placeholders of the form {@code {name}}
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template is malformed or if it cannot be resolved by this mapper tree
+     *                                  since its first path segment is not the name of a root action mapper
+     */
+    public UriFragmentTemplate getUriFragmentTemplate(final String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("template must not be null");
+        }
+        final UriFragmentTemplate compiledTemplate = uriFragmentTemplates.get(template);
+        return compiledTemplate != null ? compiledTemplate : uriFragmentTemplates.computeIfAbsent(template, this::compileTemplate);
+    }
+
+    private UriFragmentTemplate compileTemplate(final String template) {
+        final UriFragmentTemplate compiledTemplate = UriFragmentTemplate.compile(template);
+        if (!mayResolve(compiledTemplate)) {
+            throw new IllegalArgumentException("template '" + template + "' cannot be resolved by the action mapper tree");
+        }
+        return compiledTemplate;
+    }
+
+    /**
+     * Checks whether the first path segment of the given template is handled by this mapper tree. If the template
+     * starts with a parameter, it is always accepted.
+     */
+    private boolean mayResolve(final UriFragmentTemplate template) {
+        final String staticPrefix = template.getStaticPrefix();
+        final boolean firstSegmentIsStatic = template.getParameterNames().isEmpty()
+                || staticPrefix.indexOf('/', staticPrefix.startsWith("/") ? 1 : 0) >= 0;
+        return !firstSegmentIsStatic || index.mayResolve(staticPrefix);
+    }
+
+    MapperTreeIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,26 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+/**
+ * {@link UriActionCommand} which is able to create fresh copies of itself. Action commands implementing this interface
+ * can be memoized by a {@link FragmentResolutionCache}: the command object resolved for a URI fragment is kept in the
+ * cache as a prototype which is never executed itself. Every subsequent navigation to the same URI fragment is then
+ * served with a copy of this prototype instead of interpreting the URI fragment again.
+ * <p>
+ * A copy has to carry the same state as the prototype, i. e. the converted parameter values, the current URI fragment
+ * and the routing context which have been passed into the prototype by the {@link
+ * org.roklib.urifragmentrouting.UriActionMapperTree}. Since the prototype is never executed, a shallow copy of this
+ * state is usually sufficient.
+ *
+ * @see FragmentResolutionCache
+ */
+public interface CopyableUriActionCommand extends UriActionCommand {
+    /**
+     * Creates a fresh copy of this action command object which carries the same parameter values and routing context
+     * as this object.
+     *
+     * @return a new action command object which is ready to be executed
+     */
+    UriActionCommand copy();
+}
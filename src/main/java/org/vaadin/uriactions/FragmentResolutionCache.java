@@ -0,0 +1,222 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of resolved URI fragments which can be set on a {@link UriFragmentActionNavigatorWrapper} with
+ * {@link UriFragmentActionNavigatorWrapper#setFragmentResolutionCache(FragmentResolutionCache)}. A cache object is
+ * thread-safe and is intended to be shared by all navigator wrappers of an application, i. e. it should be created with
+ * application scope just like the {@link UriActionMapperTree}.
+ * <p>
+ * When a URI fragment is resolved for the first time, it is interpreted by the {@link UriActionMapperTree} as usual.
+ * This includes tokenizing the URI fragment, finding the responsible action mapper and converting all parameter values.
+ * If the resulting {@link UriActionCommand} implements {@link CopyableUriActionCommand}, the command is stored in the
+ * cache as a prototype. The next navigation to the same URI fragment with the same routing context is then served with
+ * a fresh copy of this prototype (see {@link CopyableUriActionCommand#copy()}) instead of interpreting the URI fragment
+ * again. Action commands which do not implement {@link CopyableUriActionCommand} are never cached.
+ * <p>
+ * Cache entries are keyed by the interned {@link UriFragment}, the {@link UriActionMapperTree} and the routing context
+ * object. The precomputed hash code of the URI fragment is used, and both of the latter are compared by identity. The
+ * cache therefore works best if the routing context is application-scoped, too. When the cache has reached its maximum
+ * size, the least recently used entry is evicted. The number of cache hits, misses and evictions are counted so that
+ * the maximum size of the cache can be adjusted accordingly.
+ *
+ * @see CopyableUriActionCommand
+ */
+public class FragmentResolutionCache {
+    private final int maximumSize;
+    private final Map<CacheKey, CopyableUriActionCommand> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new cache which holds at most the given number of resolved URI fragments.
+     *
+     * @param maximumSize the maximum number of cache entries. Must be greater than zero.
+     */
+    public FragmentResolutionCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximum cache size must be greater than zero");
+        }
+        this.maximumSize = maximumSize;
+        entries = new LinkedHashMap<CacheKey, CopyableUriActionCommand>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CacheKey, CopyableUriActionCommand> eldest) {
+                if (size() > FragmentResolutionCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Resolves the given URI fragment into a new {@link UriActionCommand} object. If a prototype for this URI fragment
+     * is contained in the cache, a copy of this prototype is returned. Otherwise, the fragment is interpreted by the
+     * given {@link UriActionMapperTree} without executing the resulting action command.
+     *
+     * @param uriActionMapperTree the {@link UriActionMapperTree} used to interpret the URI fragment on a cache miss
+     * @param uriFragment         the interned URI fragment to be resolved
+     * @param routingContext      the routing context passed into the action command. May be {@code null}.
+     * @return a new action command object for the URI fragment or {@code null} if the fragment could not be resolved
+     */
+    UriActionCommand resolve(final UriActionMapperTree uriActionMapperTree, final UriFragment uriFragment,
+                             final Object routingContext) {
+        final CacheKey key = new CacheKey(uriActionMapperTree, uriFragment, routingContext);
+        final CopyableUriActionCommand prototype;
+        synchronized (entries) {
+            prototype = entries.get(key);
+        }
+        if (prototype != null) {
+            hits.increment();
+            return prototype.copy();
+        }
+
+        misses.increment();
+        final UriActionCommand command =
+                uriActionMapperTree.interpretFragment(uriFragment.getValue(), routingContext, false);
+        if (command instanceof CopyableUriActionCommand) {
+            final CopyableUriActionCommand copyableCommand = (CopyableUriActionCommand) command;
+            synchronized (entries) {
+                entries.put(key, copyableCommand);
+            }
+            return copyableCommand.copy();
+        }
+        return command;
+    }
+
+    /**
+     * Moves the entries of the given previous action mapper tree to its successor. The URI fragment of each entry is
+     * interpreted by the new mapper tree with the same routing context, and the entry is replaced by the new prototype
+     * if the resulting action command is copyable. Otherwise, the entry is dropped. Only the entries of the previous
+     * mapper tree are touched, and the URI fragments are interpreted without holding the lock on this cache, so that
+     * navigations served by this cache are not blocked. The statistics counters are not changed.
+     *
+     * @param previous the action mapper tree which has been replaced
+     * @param current  the action mapper tree which replaces {@code previous}
+     */
+    void rebuild(final UriActionMapperTree previous, final UriActionMapperTree current) {
+        final List<CacheKey> previousKeys = new ArrayList<>();
+        synchronized (entries) {
+            final Iterator<CacheKey> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                final CacheKey key = keys.next();
+                if (key.uriActionMapperTree == previous) {
+                    previousKeys.add(key);
+                    keys.remove();
+                }
+            }
+        }
+        for (final CacheKey previousKey : previousKeys) {
+            final UriActionCommand command = current.interpretFragment(previousKey.uriFragment.getValue(),
+                    previousKey.routingContext, false);
+            if (command instanceof CopyableUriActionCommand) {
+                final CacheKey key = new CacheKey(current, previousKey.uriFragment, previousKey.routingContext);
+                synchronized (entries) {
+                    entries.putIfAbsent(key, (CopyableUriActionCommand) command);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from this cache. The statistics counters are not reset.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of entries currently held by this cache.
+     *
+     * @return the current size of this cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the maximum number of entries this cache holds before the least recently used entry is evicted.
+     *
+     * @return the maximum size of this cache
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of URI fragments which could be served from this cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of URI fragments which had to be interpreted by the {@link UriActionMapperTree}.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries which have been evicted from this cache because the maximum size was exceeded.
+     *
+     * @return the number of evicted cache entries
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static final class CacheKey {
+        private final UriActionMapperTree uriActionMapperTree;
+        private final UriFragment uriFragment;
+        private final Object routingContext;
+        private final int hashCode;
+
+        private CacheKey(final UriActionMapperTree uriActionMapperTree, final UriFragment uriFragment,
+                         final Object routingContext) {
+            this.uriActionMapperTree = uriActionMapperTree;
+            this.uriFragment = uriFragment;
+            this.routingContext = routingContext;
+            hashCode = 31 * (31 * System.identityHashCode(uriActionMapperTree) + uriFragment.hashCode())
+                    + System.identityHashCode(routingContext);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey that = (CacheKey) other;
+            return uriActionMapperTree == that.uriActionMapperTree
+                    && routingContext == that.routingContext
+                    && uriFragment.equals(that.uriFragment);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
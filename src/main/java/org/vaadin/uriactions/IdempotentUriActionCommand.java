@@ -0,0 +1,23 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+/**
+ * Marker interface for {@link UriActionCommand}s whose execution has no further effect when it is repeated for the
+ * same URI fragment and routing context, such as an action command which loads and displays the data of a dashboard.
+ * <p>
+ * When the navigator of a {@link UriFragmentActionNavigatorWrapper} is asked to navigate to the URI fragment it is
+ * currently showing, e. g. because of {@link com.vaadin.navigator.Navigator#navigateTo(String)} with the current
+ * navigation state or a page reload of a UI annotated with {@link com.vaadin.annotations.PreserveOnRefresh}, the URI
+ * fragment is usually interpreted and its action command is executed again. If the action command of the current
+ * navigation state is idempotent and has been executed successfully, the navigator wrapper instead short-circuits such
+ * a navigation: the URI fragment is not interpreted and no action command is executed. The {@link
+ * ActionExecutionView} of this navigation provides the action command executed before.
+ * <p>
+ * A navigation is only short-circuited if the action mapper tree and the routing context of the wrapper are still the
+ * same objects as when the action command was executed, and if the time-to-live set with {@link
+ * UriFragmentActionNavigatorWrapper#setIdempotentNavigationTimeToLive(long, java.util.concurrent.TimeUnit)} has not
+ * expired.
+ */
+public interface IdempotentUriActionCommand extends UriActionCommand {
+}
@@ -0,0 +1,86 @@
+package org.vaadin.uriactions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies measured in nanoseconds. The latencies are counted in buckets whose upper bounds
+ * are powers of two. Percentiles calculated from this histogram are therefore accurate up to a factor of two, which is
+ * sufficient to find out where navigation time goes while keeping the overhead of recording a value minimal.
+ */
+class LatencyHistogram {
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(final long nanos) {
+        final long value = Math.max(nanos, 0L);
+        buckets.incrementAndGet(Math.min(BUCKET_COUNT - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1));
+        count.increment();
+        totalNanos.add(value);
+        long currentMax;
+        while (value > (currentMax = maxNanos.get())) {
+            if (maxNanos.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Adds all latencies recorded by the given histogram to this histogram, e. g. to merge the histograms which have
+     * been recorded by several threads without contention.
+     */
+    void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            final long bucketCount = other.buckets.get(i);
+            if (bucketCount != 0) {
+                buckets.addAndGet(i, bucketCount);
+            }
+        }
+        count.add(other.count.sum());
+        totalNanos.add(other.totalNanos.sum());
+        final long otherMax = other.maxNanos.get();
+        long currentMax;
+        while (otherMax > (currentMax = maxNanos.get())) {
+            if (maxNanos.compareAndSet(currentMax, otherMax)) {
+                break;
+            }
+        }
+    }
+
+    LatencySnapshot snapshot() {
+        final long[] bucketCounts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = buckets.get(i);
+            total += bucketCounts[i];
+        }
+        final long max = maxNanos.get();
+        return new LatencySnapshot(total,
+                total == 0 ? 0L : totalNanos.sum() / total,
+                percentile(bucketCounts, total, 0.5, max),
+                percentile(bucketCounts, total, 0.99, max),
+                percentile(bucketCounts, total, 0.999, max),
+                max);
+    }
+
+    private static long percentile(final long[] bucketCounts, final long total, final double quantile, final long max) {
+        if (total == 0) {
+            return 0L;
+        }
+        final long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                final long upperBound = i == 0 ? 0L : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upperBound, max);
+            }
+        }
+        return max;
+    }
+}
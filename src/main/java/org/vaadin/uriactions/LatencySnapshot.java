@@ -0,0 +1,77 @@
+package org.vaadin.uriactions;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable snapshot of the latencies recorded for one particular phase of the navigation process. All values are
+ * given in nanoseconds. Percentiles are approximated: they are accurate up to a factor of two.
+ *
+ * @see NavigationMetrics
+ */
+public class LatencySnapshot {
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    @ConstructorProperties({"count", "meanNanos", "p50Nanos", "p99Nanos", "p999Nanos", "maxNanos"})
+    public LatencySnapshot(final long count, final long meanNanos, final long p50Nanos, final long p99Nanos,
+                           final long p999Nanos, final long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the arithmetic mean of all recorded latencies
+     */
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * @return the approximated median of all recorded latencies
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return the approximated 99th percentile of all recorded latencies
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return the approximated 99.9th percentile of all recorded latencies
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * @return the maximum recorded latency
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + meanNanos + "ns, p50=" + p50Nanos + "ns, p99=" + p99Nanos
+                + "ns, p999=" + p999Nanos + "ns, max=" + maxNanos + "ns";
+    }
+}
@@ -0,0 +1,209 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index over the root level of a {@link UriActionMapperTree} which is used to reject URI fragments that cannot be
+ * resolved by the mapper tree without interpreting them. This is useful when a {@link UriFragmentActionNavigatorWrapper}
+ * is used in conjunction with a fallback {@link com.vaadin.navigator.ViewDisplay}: URI fragments meant for views which
+ * have been added to the wrapped navigator in the customary Vaadin-style will then be passed on to the other {@link
+ * com.vaadin.navigator.ViewProvider}s right away.
+ * <p>
+ * The index consists of two parts. The first part is a hash table of the names of all root action mappers of the mapper
+ * tree. This table is built from the mapper tree's overview (see {@link UriActionMapperTree#getMapperOverview()}). If
+ * the first path segment of a URI fragment is not contained in this table, the URI fragment cannot be resolved. Lookups
+ * in this table are carried out directly on the characters of the URI fragment so that no objects are allocated. This
+ * lets the {@link UriFragmentActionNavigatorWrapper} reject unknown URI fragments before they are interned as {@link
+ * UriFragment}s. If the mapper tree contains root action mappers which do not have a plain literal name (such as
+ * mappers matching regular expressions), this table is disabled and every first path segment is accepted.
+ * <p>
+ * The second part is a size-bounded cache of complete URI fragments which have been interpreted by the mapper tree
+ * without success, i. e. which failed deeper in the tree. This cache is only consulted for URI fragments which have
+ * passed the first part. It is read without locking, since it is consulted on every navigation to the mapper tree,
+ * whereas it is only modified when a URI fragment could not be resolved. When the cache is full, the URI fragments
+ * remembered first are evicted first. Under concurrent modification, the cache may briefly exceed its maximum size or
+ * evict a few more entries than necessary.
+ * <p>
+ * An index is only valid for the mapper tree it has been built for. It has to be rebuilt whenever the mapper tree
+ * changes.
+ */
+class MapperTreeIndex {
+    /**
+     * Default maximum number of unresolvable URI fragments remembered by an index.
+     */
+    static final int DEFAULT_NEGATIVE_CACHE_SIZE = 256;
+
+    private final String[] rootSegments;
+    private final int mask;
+    private final int negativeCacheSize;
+    private final ConcurrentMap<String, Boolean> unresolvableFragments = new ConcurrentHashMap<>();
+    private final Queue<String> evictionOrder = new ConcurrentLinkedQueue<>();
+
+    private MapperTreeIndex(final String[] rootSegments, final int negativeCacheSize) {
+        this.rootSegments = rootSegments;
+        mask = rootSegments == null ? 0 : rootSegments.length - 1;
+        this.negativeCacheSize = negativeCacheSize;
+    }
+
+    /**
+     * Builds the index for the given {@link UriActionMapperTree}.
+     *
+     * @param uriActionMapperTree the mapper tree to be indexed
+     * @param negativeCacheSize   maximum number of unresolvable URI fragments remembered by the index
+     * @return the index for the given mapper tree
+     */
+    static MapperTreeIndex build(final UriActionMapperTree uriActionMapperTree, final int negativeCacheSize) {
+        if (uriActionMapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        if (negativeCacheSize < 0) {
+            throw new IllegalArgumentException("negative cache size must not be negative");
+        }
+        return new MapperTreeIndex(buildRootSegmentTable(uriActionMapperTree.getMapperOverview()), negativeCacheSize);
+    }
+
+    /**
+     * @return the maximum number of unresolvable URI fragments remembered by this index
+     */
+    int getNegativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    /**
+     * Determines whether the given URI fragment can possibly be resolved by the indexed mapper tree. If this method
+     * returns {@code false}, the URI fragment is guaranteed not to be resolvable. If it returns {@code true}, the URI
+     * fragment has to be interpreted by the mapper tree to find out whether it can be resolved.
+     *
+     * @param uriFragment the URI fragment to be checked
+     * @return {@code false} if the URI fragment cannot be resolved by the mapper tree
+     */
+    boolean mayResolve(final String uriFragment) {
+        if (rootSegments != null && !containsFirstSegmentOf(uriFragment)) {
+            return false;
+        }
+        return !unresolvableFragments.containsKey(uriFragment);
+    }
+
+    /**
+     * Remembers the given URI fragment as not being resolvable by the indexed mapper tree.
+     *
+     * @param uriFragment a URI fragment which could not be resolved by the mapper tree
+     */
+    void rememberUnresolvable(final String uriFragment) {
+        if (negativeCacheSize == 0 || unresolvableFragments.putIfAbsent(uriFragment, Boolean.TRUE) != null) {
+            return;
+        }
+        evictionOrder.add(uriFragment);
+        while (unresolvableFragments.size() > negativeCacheSize) {
+            final String eldest = evictionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            unresolvableFragments.remove(eldest);
+        }
+    }
+
+    private boolean containsFirstSegmentOf(final String uriFragment) {
+        final int length = uriFragment.length();
+        int start = 0;
+        while (start < length && uriFragment.charAt(start) == '/') {
+            start++;
+        }
+        int end = start;
+        int hash = 0;
+        while (end < length) {
+            final char c = uriFragment.charAt(end);
+            if (UriFragment.isSegmentDelimiter(c)) {
+                break;
+            }
+            if (c == '%') {
+                // encoded characters are decoded by the mapper tree, so we cannot decide here
+                return true;
+            }
+            hash = 31 * hash + c;
+            end++;
+        }
+
+        final int segmentLength = end - start;
+        if (segmentLength == 0) {
+            // the empty URI fragment is handled by the root of the mapper tree
+            return true;
+        }
+        int slot = spread(hash) & mask;
+        String candidate;
+        while ((candidate = rootSegments[slot]) != null) {
+            if (candidate.length() == segmentLength && uriFragment.regionMatches(start, candidate, 0, segmentLength)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static String[] buildRootSegmentTable(final List<String> mapperOverview) {
+        if (mapperOverview == null || mapperOverview.isEmpty()) {
+            return null;
+        }
+        int capacity = 4;
+        while (capacity < mapperOverview.size() * 2) {
+            capacity <<= 1;
+        }
+        final String[] table = new String[capacity];
+        for (final String mapperPath : mapperOverview) {
+            final String segment = extractRootSegment(mapperPath);
+            if (segment == null) {
+                return null;
+            }
+            insert(table, segment);
+        }
+        return table;
+    }
+
+    private static String extractRootSegment(final String mapperPath) {
+        if (mapperPath == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < mapperPath.length() && mapperPath.charAt(start) == '/') {
+            start++;
+        }
+        int end = start;
+        while (end < mapperPath.length()) {
+            final char c = mapperPath.charAt(end);
+            if (UriFragment.isSegmentDelimiter(c) || c == '[' || Character.isWhitespace(c)) {
+                break;
+            }
+            if (!isLiteralCharacter(c)) {
+                return null;
+            }
+            end++;
+        }
+        return end > start ? mapperPath.substring(start, end) : null;
+    }
+
+    private static void insert(final String[] table, final String segment) {
+        final int mask = table.length - 1;
+        int slot = spread(segment.hashCode()) & mask;
+        while (table[slot] != null) {
+            if (table[slot].equals(segment)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = segment;
+    }
+
+    private static boolean isLiteralCharacter(final char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
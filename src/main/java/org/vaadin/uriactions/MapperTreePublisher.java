@@ -0,0 +1,209 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Application-scoped publisher of the current version of a {@link CompiledUriActionMapperTree}, which allows to add or
+ * retire routes while the application is running. All navigator wrappers of the application are connected to the
+ * publisher with {@link UriFragmentActionNavigatorWrapper#setMapperTreePublisher(MapperTreePublisher)} instead of being
+ * given a fixed mapper tree. When a new version of the mapper tree is published, it is applied to all of these wrappers
+ * at once:
+ * <pre>
+ *    private static final MapperTreePublisher MAPPER_TREE = new MapperTreePublisher(
+ *        CompiledUriActionMapperTree.compile(buildRoutes()));
+ *
+ *    protected void init(VaadinRequest request) {
+ *        UriFragmentActionNavigatorWrapper navigatorWrapper = new UriFragmentActionNavigatorWrapper(this);
+ *        navigatorWrapper.setMapperTreePublisher(MAPPER_TREE);
+ *    }
+ *
+ *    void routesChanged() {
+ *        MAPPER_TREE.publish(buildRoutes());
+ *    }
+ * </pre>
+ * Publication is atomic and lock-free: the current version is held in an {@link AtomicReference} which each navigation
+ * reads exactly once. A navigation which is in progress while a new version is published finishes with the version it
+ * has started with. Each subsequent navigation of every wrapper uses the new version. Everything which a wrapper
+ * derives from a mapper tree version, such as the index of the compiled mapper tree or remembered executions of {@link
+ * IdempotentUriActionCommand}s, is bound to this version and is therefore not used with the new version.
+ * <p>
+ * Shared caches are kept consistent with the published version: the {@link FragmentResolutionCache}s added with {@link
+ * #addFragmentResolutionCache(FragmentResolutionCache)} are rebuilt incrementally after each publication by
+ * re-resolving only their entries for the previous version (see {@link FragmentResolutionCache}). The compiled {@link
+ * UriFragmentTemplate}s are carried over to the new version if they are still valid (see {@link
+ * CompiledUriActionMapperTree#recompile(UriActionMapperTree)}). Further application-specific data can be updated with
+ * a {@link PublicationListener}. Rebuilding caches and notifying listeners is done in the publishing thread after the
+ * new version has become visible, so that navigations are never blocked by a publication.
+ * <p>
+ * If the new version has to be warmed up or validated before it handles the first navigation, run a {@link
+ * MapperTreeWarmUp} on the compiled mapper tree and publish it with {@link #publish(CompiledUriActionMapperTree)}
+ * afterwards.
+ */
+public class MapperTreePublisher {
+    private final AtomicReference<Version> currentVersion;
+    private final List<FragmentResolutionCache> fragmentResolutionCaches = new CopyOnWriteArrayList<>();
+    private final List<PublicationListener> publicationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a publisher with the given initial version of the compiled mapper tree.
+     *
+     * @param initialMapperTree the compiled mapper tree which is published first
+     */
+    public MapperTreePublisher(final CompiledUriActionMapperTree initialMapperTree) {
+        if (initialMapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        currentVersion = new AtomicReference<>(new Version(initialMapperTree, 1));
+    }
+
+    /**
+     * Provides the currently published version of the compiled mapper tree.
+     *
+     * @return the current compiled mapper tree
+     */
+    public CompiledUriActionMapperTree getCurrent() {
+        return currentVersion.get().mapperTree;
+    }
+
+    /**
+     * Provides the number of the currently published version. The initial version has the number 1, and each
+     * publication increments the version number by one.
+     *
+     * @return the current version number
+     */
+    public long getVersion() {
+        return currentVersion.get().number;
+    }
+
+    /**
+     * Compiles the given action mapper tree as the successor of the current version and publishes it.
+     *
+     * @param uriActionMapperTree the new version of the action mapper tree
+     * @return the compiled mapper tree which has been published
+     * @see CompiledUriActionMapperTree#recompile(UriActionMapperTree)
+     */
+    public CompiledUriActionMapperTree publish(final UriActionMapperTree uriActionMapperTree) {
+        if (uriActionMapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        while (true) {
+            final Version previous = currentVersion.get();
+            final CompiledUriActionMapperTree successor = previous.mapperTree.recompile(uriActionMapperTree);
+            if (publish(previous, successor)) {
+                return successor;
+            }
+        }
+    }
+
+    /**
+     * Publishes the given compiled mapper tree as the new version.
+     *
+     * @param mapperTree the new version of the compiled mapper tree
+     */
+    public void publish(final CompiledUriActionMapperTree mapperTree) {
+        if (mapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        while (!publish(currentVersion.get(), mapperTree)) {
+            // another version has been published concurrently, publish on top of it
+        }
+    }
+
+    /**
+     * Publishes the given compiled mapper tree only if the currently published version is still the expected one. This
+     * prevents two concurrent publications from silently overwriting each other.
+     *
+     * @param expectedMapperTree the compiled mapper tree which is expected to be the current version
+     * @param mapperTree         the new version of the compiled mapper tree
+     * @return {@code true} if the new version has been published
+     */
+    public boolean compareAndPublish(final CompiledUriActionMapperTree expectedMapperTree,
+                                     final CompiledUriActionMapperTree mapperTree) {
+        if (mapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        final Version previous = currentVersion.get();
+        return previous.mapperTree == expectedMapperTree && publish(previous, mapperTree);
+    }
+
+    private boolean publish(final Version previous, final CompiledUriActionMapperTree mapperTree) {
+        if (!currentVersion.compareAndSet(previous, new Version(mapperTree, previous.number + 1))) {
+            return false;
+        }
+        if (previous.mapperTree != mapperTree) {
+            for (final FragmentResolutionCache cache : fragmentResolutionCaches) {
+                cache.rebuild(previous.mapperTree.getUriActionMapperTree(), mapperTree.getUriActionMapperTree());
+            }
+        }
+        for (final PublicationListener listener : publicationListeners) {
+            listener.mapperTreePublished(previous.mapperTree, mapperTree);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a {@link FragmentResolutionCache} which is rebuilt whenever a new version is published. This should be the
+     * cache set on the navigator wrappers connected to this publisher.
+     *
+     * @param fragmentResolutionCache the cache to be kept consistent with the published version
+     */
+    public void addFragmentResolutionCache(final FragmentResolutionCache fragmentResolutionCache) {
+        if (fragmentResolutionCache == null) {
+            throw new IllegalArgumentException("fragment resolution cache must not be null");
+        }
+        fragmentResolutionCaches.add(fragmentResolutionCache);
+    }
+
+    /**
+     * Adds a listener which is notified whenever a new version is published.
+     *
+     * @param listener the listener to be added
+     */
+    public void addPublicationListener(final PublicationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        publicationListeners.add(listener);
+    }
+
+    /**
+     * Removes the given listener.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removePublicationListener(final PublicationListener listener) {
+        publicationListeners.remove(listener);
+    }
+
+    /**
+     * Listener which is notified by a {@link MapperTreePublisher} after a new version of the compiled mapper tree has
+     * been published.
+     */
+    @FunctionalInterface
+    public interface PublicationListener {
+        /**
+         * Invoked in the publishing thread after the new version has become visible to all navigator wrappers.
+         *
+         * @param previous the compiled mapper tree which has been replaced
+         * @param current  the newly published compiled mapper tree
+         */
+        void mapperTreePublished(CompiledUriActionMapperTree previous, CompiledUriActionMapperTree current);
+    }
+
+    /**
+     * A published compiled mapper tree together with its version number, so that both are swapped atomically.
+     */
+    private static final class Version {
+        private final CompiledUriActionMapperTree mapperTree;
+        private final long number;
+
+        private Version(final CompiledUriActionMapperTree mapperTree, final long number) {
+            this.mapperTree = mapperTree;
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Warms up and validates a {@link CompiledUriActionMapperTree} on application startup. The first navigations after
+ * deployment are considerably slower than later ones, since class loading, JIT compilation, and lazy initialization in
+ * the action mapper tree all happen while a user is waiting for the response. A warm-up replays a configured list of
+ * URI fragments through the resolution path of a navigator wrapper before the application accepts the first request:
+ * each URI fragment is checked against the index of the compiled action mapper tree, interned as a {@link UriFragment},
+ * and resolved through the {@link FragmentResolutionCache} if one is set. The action mapper tree itself interprets the
+ * URI fragments in each iteration as well, so that it is also warmed up for the URI fragments which are not served by
+ * the cache. The resolved action commands are not executed.
+ * <p>
+ * The per-wrapper parts of a navigation, i. e. the navigator itself and the pool of execution views of each navigator
+ * wrapper, are not warmed up, since a warm-up is not bound to a {@link com.vaadin.ui.UI}.
+ * <p>
+ * At the same time, the warm-up validates the configured URI fragments: if one of them cannot be resolved by the action
+ * mapper tree any longer, e. g. because an action mapper has been renamed, the warm-up fails immediately. The URI
+ * fragments are typically the application's entry points and bookmarkable URIs, which can be configured in code or
+ * loaded from a file with one URI fragment per line:
+ * <pre>
+ *    MapperTreeWarmUp warmUp = new MapperTreeWarmUp(MAPPER_TREE);
+ *    warmUp.setRoutingContext(ROUTING_CONTEXT);
+ *    try (Reader fragments = new InputStreamReader(getClass().getResourceAsStream("/warm-up-fragments.txt"), UTF_8)) {
+ *        warmUp.addFragments(fragments);
+ *    }
+ *    LOG.info("Mapper tree warmed up: {}", warmUp.run());
+ * </pre>
+ * Note that the action command classes must be safe to instantiate without executing them, since the action mapper
+ * tree creates a new action command object for each interpreted URI fragment.
+ */
+public class MapperTreeWarmUp {
+    /**
+     * Minimum number of URI fragment interpretations carried out by a warm-up if the number of iterations has not been
+     * set explicitly. This is about the number of invocations after which the JIT compiler has optimized a method.
+     */
+    public static final int DEFAULT_MINIMUM_INTERPRETATIONS = 10000;
+
+    private final CompiledUriActionMapperTree mapperTree;
+    private final List<String> fragments = new ArrayList<>();
+    private Object routingContext;
+    private FragmentResolutionCache fragmentResolutionCache;
+    private int iterations = -1;
+
+    /**
+     * Creates a warm-up for the given compiled action mapper tree.
+     *
+     * @param mapperTree the compiled action mapper tree to be warmed up
+     */
+    public MapperTreeWarmUp(final CompiledUriActionMapperTree mapperTree) {
+        if (mapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        this.mapperTree = mapperTree;
+    }
+
+    /**
+     * Sets the routing context passed into the interpretation process. This should be the same routing context as
+     * used by the application's navigator wrappers.
+     *
+     * @param routingContext the routing context object. May be {@code null}.
+     */
+    public void setRoutingContext(final Object routingContext) {
+        this.routingContext = routingContext;
+    }
+
+    /**
+     * Sets the {@link FragmentResolutionCache} used by the application's navigator wrappers. If a cache is set, the
+     * validating pass of the warm-up resolves the URI fragments through this cache, so that the cache is populated
+     * with the configured URI fragments before the first request.
+     *
+     * @param fragmentResolutionCache the cache to be populated. May be {@code null}.
+     */
+    public void setFragmentResolutionCache(final FragmentResolutionCache fragmentResolutionCache) {
+        this.fragmentResolutionCache = fragmentResolutionCache;
+    }
+
+    /**
+     * Sets the number of times all URI fragments are interpreted after they have been validated. By default, the
+     * number of iterations is chosen so that at least {@value #DEFAULT_MINIMUM_INTERPRETATIONS} URI fragments are
+     * interpreted in total.
+     *
+     * @param iterations the number of iterations. May be zero to only validate the URI fragments.
+     */
+    public void setIterations(final int iterations) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("number of iterations must not be negative");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Adds the given URI fragments to be replayed by this warm-up.
+     *
+     * @param uriFragments the URI fragments which must be resolvable by the action mapper tree
+     */
+    public void addFragments(final Collection<String> uriFragments) {
+        for (final String uriFragment : uriFragments) {
+            if (uriFragment == null) {
+                throw new IllegalArgumentException("URI fragment must not be null");
+            }
+        }
+        fragments.addAll(uriFragments);
+    }
+
+    /**
+     * Adds the URI fragments read from the given reader, e. g. a list of URI fragments recorded in production. Each
+     * line contains one URI fragment. Empty lines and lines starting with {@code #} are ignored. The reader is not
+     * closed by this method.
+     *
+     * @param reader the reader providing the URI fragments
+     * @throws IOException if the URI fragments cannot be read
+     */
+    public void addFragments(final Reader reader) throws IOException {
+        final BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            final String uriFragment = line.trim();
+            if (!uriFragment.isEmpty() && !uriFragment.startsWith("#")) {
+                fragments.add(uriFragment);
+            }
+        }
+    }
+
+    /**
+     * Provides the URI fragments replayed by this warm-up.
+     *
+     * @return an unmodifiable list of the URI fragments
+     */
+    public List<String> getFragments() {
+        return Collections.unmodifiableList(fragments);
+    }
+
+    /**
+     * Runs the warm-up. First, each URI fragment is resolved once to validate that it can still be resolved by the
+     * action mapper tree. Then all URI fragments are resolved again for the configured number of iterations. The
+     * warm interpretation latencies cover the resolution path of a navigator wrapper; the additional interpretation
+     * by the action mapper tree for a set fragment resolution cache is not included.
+     *
+     * @return the timings of the warm-up
+     * @throws IllegalStateException if one of the URI fragments cannot be resolved by the action mapper tree
+     */
+    public WarmUpReport run() {
+        final long start = System.nanoTime();
+        final UriActionMapperTree uriActionMapperTree = mapperTree.getUriActionMapperTree();
+        final MapperTreeIndex index = mapperTree.getIndex();
+
+        final LatencyHistogram coldInterpretation = new LatencyHistogram();
+        final List<UriFragment> internedFragments = new ArrayList<>(fragments.size());
+        for (final String fragment : fragments) {
+            final long interpretationStart = System.nanoTime();
+            final UriFragment uriFragment = index.mayResolve(fragment) ? UriFragment.intern(fragment) : null;
+            final UriActionCommand command = uriFragment != null ? resolve(uriActionMapperTree, uriFragment) : null;
+            coldInterpretation.record(System.nanoTime() - interpretationStart);
+            if (command == null) {
+                throw new IllegalStateException("URI fragment '" + fragment
+                        + "' cannot be resolved by the action mapper tree");
+            }
+            internedFragments.add(uriFragment);
+        }
+
+        final int effectiveIterations = getEffectiveIterations();
+        final LatencyHistogram warmInterpretation = new LatencyHistogram();
+        for (int i = 0; i < effectiveIterations; i++) {
+            for (final UriFragment internedFragment : internedFragments) {
+                final String fragment = internedFragment.getValue();
+                final long interpretationStart = System.nanoTime();
+                if (index.mayResolve(fragment)) {
+                    resolve(uriActionMapperTree, UriFragment.intern(fragment));
+                }
+                warmInterpretation.record(System.nanoTime() - interpretationStart);
+                if (fragmentResolutionCache != null) {
+                    // a cache hit does not interpret the URI fragment, so the mapper tree is warmed up separately
+                    uriActionMapperTree.interpretFragment(fragment, routingContext, false);
+                }
+            }
+        }
+        return new WarmUpReport(fragments.size(), effectiveIterations, System.nanoTime() - start,
+                coldInterpretation.snapshot(), warmInterpretation.snapshot());
+    }
+
+    private UriActionCommand resolve(final UriActionMapperTree uriActionMapperTree, final UriFragment uriFragment) {
+        if (fragmentResolutionCache != null) {
+            return fragmentResolutionCache.resolve(uriActionMapperTree, uriFragment, routingContext);
+        }
+        return uriActionMapperTree.interpretFragment(uriFragment.getValue(), routingContext, false);
+    }
+
+    private int getEffectiveIterations() {
+        if (iterations >= 0) {
+            return iterations;
+        }
+        if (fragments.isEmpty()) {
+            return 0;
+        }
+        return (DEFAULT_MINIMUM_INTERPRETATIONS + fragments.size() - 1) / fragments.size();
+    }
+}
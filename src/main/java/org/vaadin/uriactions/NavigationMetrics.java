@@ -0,0 +1,207 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects latency and throughput metrics about the navigations handled by {@link UriFragmentActionNavigatorWrapper}s.
+ * A metrics object can be set on a navigator wrapper with {@link UriFragmentActionNavigatorWrapper#setNavigationMetrics(NavigationMetrics)}.
+ * Since it is thread-safe, the same metrics object can be shared by all navigator wrappers of an application.
+ * <p>
+ * For each navigation, the following values are recorded:
+ * <ul>
+ * <li>the time needed to interpret the URI fragment with the action mapper tree (including the time needed to look it
+ * up in a {@link FragmentResolutionCache}),</li>
+ * <li>the time needed to execute the resolved action command,</li>
+ * <li>whether the URI fragment could be resolved by the action mapper tree,</li>
+ * <li>whether the navigation has been short-circuited, since it leads to an already executed {@link
+ * IdempotentUriActionCommand}, and</li>
+ * <li>whether the navigation has been handled by a view provided by another {@link com.vaadin.navigator.ViewProvider}
+ * instead.</li>
+ * </ul>
+ * The latencies are aggregated per route. A route is identified by the class of the resolved action command and not
+ * by the URI fragment itself. By that, the number of collected histograms stays bounded. All values are recorded with
+ * lock-free counters.
+ * <p>
+ * The collected metrics can be read with {@link #getRouteStatistics()} and the other getter methods of this class.
+ * They can be exposed via JMX with {@link #registerMBean(String)}. In addition to that, {@link
+ * NavigationMetricsListener}s can be registered which are notified about every single measured navigation.
+ */
+public class NavigationMetrics implements NavigationMetricsMXBean {
+    private final ConcurrentMap<Class<?>, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final LatencyHistogram unresolvedInterpretation = new LatencyHistogram();
+    private final LongAdder resolvedNavigations = new LongAdder();
+    private final LongAdder shortCircuitedNavigations = new LongAdder();
+    private final LongAdder fallbackNavigations = new LongAdder();
+    private final List<NavigationMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a listener which is notified about every measured navigation.
+     *
+     * @param listener the listener to be added
+     */
+    public void addListener(final NavigationMetricsListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added listener.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(final NavigationMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers this metrics object with the platform MBean server under the given object name, e. g. {@code
+     * "org.vaadin.uriactions:type=NavigationMetrics"}.
+     *
+     * @param objectName the JMX object name for this metrics object
+     * @return the object name this metrics object has been registered with
+     * @throws IllegalStateException if this metrics object could not be registered
+     */
+    public ObjectName registerMBean(final String objectName) {
+        try {
+            final ObjectName name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("unable to register navigation metrics with object name " + objectName, e);
+        }
+    }
+
+    /**
+     * Unregisters this metrics object from the platform MBean server.
+     *
+     * @param objectName the object name this metrics object has been registered with
+     * @throws IllegalStateException if this metrics object could not be unregistered
+     */
+    public void unregisterMBean(final ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("unable to unregister navigation metrics with object name " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getResolvedNavigationCount() {
+        return resolvedNavigations.sum();
+    }
+
+    @Override
+    public long getUnresolvedNavigationCount() {
+        return unresolvedInterpretation.snapshot().getCount();
+    }
+
+    @Override
+    public long getShortCircuitedNavigationCount() {
+        return shortCircuitedNavigations.sum();
+    }
+
+    @Override
+    public long getFallbackNavigationCount() {
+        return fallbackNavigations.sum();
+    }
+
+    @Override
+    public LatencySnapshot getUnresolvedInterpretation() {
+        return unresolvedInterpretation.snapshot();
+    }
+
+    @Override
+    public List<RouteStatistics> getRouteStatistics() {
+        final List<RouteStatistics> result = new ArrayList<>(routes.size());
+        for (final RouteMetrics route : routes.values()) {
+            result.add(route.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the metrics of the route which is handled by the given action command class.
+     *
+     * @param commandClass the action command class of the route
+     * @return the metrics of this route or {@code null} if this route has not been navigated to yet
+     */
+    public RouteStatistics getRouteStatistics(final Class<? extends UriActionCommand> commandClass) {
+        final RouteMetrics route = routes.get(commandClass);
+        return route == null ? null : route.snapshot();
+    }
+
+    void recordInterpretation(final String uriFragment, final UriActionCommand command, final long durationNanos) {
+        final Class<? extends UriActionCommand> commandClass = command == null ? null : command.getClass();
+        if (commandClass == null) {
+            unresolvedInterpretation.record(durationNanos);
+        } else {
+            resolvedNavigations.increment();
+            getRouteMetrics(commandClass).interpretation.record(durationNanos);
+        }
+        for (final NavigationMetricsListener listener : listeners) {
+            listener.fragmentInterpreted(uriFragment, commandClass, durationNanos);
+        }
+    }
+
+    /**
+     * Records a short-circuited navigation. Such a navigation is not added to the interpretation latencies of its
+     * route, since its URI fragment has not been interpreted.
+     */
+    void recordShortCircuit(final String uriFragment, final UriActionCommand command, final long durationNanos) {
+        shortCircuitedNavigations.increment();
+        for (final NavigationMetricsListener listener : listeners) {
+            listener.navigationShortCircuited(uriFragment, command.getClass(), durationNanos);
+        }
+    }
+
+    void recordExecution(final UriActionCommand command, final long durationNanos, final Throwable failure) {
+        final RouteMetrics route = getRouteMetrics(command.getClass());
+        route.execution.record(durationNanos);
+        if (failure != null) {
+            route.executionFailures.increment();
+        }
+        for (final NavigationMetricsListener listener : listeners) {
+            listener.commandExecuted(command, durationNanos, failure);
+        }
+    }
+
+    void recordFallback(final View view) {
+        fallbackNavigations.increment();
+        for (final NavigationMetricsListener listener : listeners) {
+            listener.fallbackViewShown(view);
+        }
+    }
+
+    private RouteMetrics getRouteMetrics(final Class<?> commandClass) {
+        final RouteMetrics route = routes.get(commandClass);
+        return route != null ? route : routes.computeIfAbsent(commandClass, RouteMetrics::new);
+    }
+
+    private static final class RouteMetrics {
+        private final String route;
+        private final LatencyHistogram interpretation = new LatencyHistogram();
+        private final LatencyHistogram execution = new LatencyHistogram();
+        private final LongAdder executionFailures = new LongAdder();
+
+        private RouteMetrics(final Class<?> commandClass) {
+            route = commandClass.getName();
+        }
+
+        private RouteStatistics snapshot() {
+            return new RouteStatistics(route, interpretation.snapshot(), execution.snapshot(), executionFailures.sum());
+        }
+    }
+}
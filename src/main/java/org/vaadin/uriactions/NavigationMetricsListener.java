@@ -0,0 +1,61 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+/**
+ * Listener which is notified by {@link NavigationMetrics} about every measured navigation. This can be used to pass
+ * the measured values on to an external monitoring system. All methods of this interface have an empty default
+ * implementation, so that only the relevant ones need to be implemented.
+ * <p>
+ * The listener methods are invoked in the thread which has handled the navigation. They should therefore return
+ * quickly.
+ *
+ * @see NavigationMetrics#addListener(NavigationMetricsListener)
+ */
+public interface NavigationMetricsListener {
+    /**
+     * Invoked when a URI fragment has been interpreted by the action mapper tree.
+     *
+     * @param uriFragment   the interpreted URI fragment
+     * @param commandClass  the class of the action command the URI fragment has been resolved to or {@code null} if
+     *                      the URI fragment could not be resolved
+     * @param durationNanos the time needed to interpret the URI fragment in nanoseconds
+     */
+    default void fragmentInterpreted(final String uriFragment, final Class<? extends UriActionCommand> commandClass,
+                                     final long durationNanos) {
+    }
+
+    /**
+     * Invoked when a navigation to an already executed {@link IdempotentUriActionCommand} has been short-circuited,
+     * i. e. when the URI fragment has neither been interpreted nor has the action command been executed again.
+     *
+     * @param uriFragment   the URI fragment of the navigation
+     * @param commandClass  the class of the already executed action command
+     * @param durationNanos the time needed to find the already executed action command in nanoseconds
+     */
+    default void navigationShortCircuited(final String uriFragment,
+                                          final Class<? extends UriActionCommand> commandClass,
+                                          final long durationNanos) {
+    }
+
+    /**
+     * Invoked when an action command has been executed.
+     *
+     * @param command       the executed action command
+     * @param durationNanos the execution time of the action command in nanoseconds
+     * @param failure       the exception thrown by the action command or {@code null} if it has been executed
+     *                      successfully
+     */
+    default void commandExecuted(final UriActionCommand command, final long durationNanos, final Throwable failure) {
+    }
+
+    /**
+     * Invoked when the navigator has shown a view which has been provided by another {@link
+     * com.vaadin.navigator.ViewProvider} than the action mapper tree.
+     *
+     * @param view the shown view
+     */
+    default void fallbackViewShown(final View view) {
+    }
+}
@@ -0,0 +1,41 @@
+package org.vaadin.uriactions;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link NavigationMetrics} which is exposed via JMX when the metrics object has been
+ * registered with {@link NavigationMetrics#registerMBean(String)}.
+ */
+public interface NavigationMetricsMXBean {
+    /**
+     * @return the number of URI fragments which have been resolved by the action mapper tree
+     */
+    long getResolvedNavigationCount();
+
+    /**
+     * @return the number of URI fragments which could not be resolved by the action mapper tree
+     */
+    long getUnresolvedNavigationCount();
+
+    /**
+     * @return the number of navigations to an already executed idempotent action command which have been
+     * short-circuited without interpreting the URI fragment again
+     */
+    long getShortCircuitedNavigationCount();
+
+    /**
+     * @return the number of navigations which have been handled by a view provided by another {@link
+     * com.vaadin.navigator.ViewProvider} than the action mapper tree
+     */
+    long getFallbackNavigationCount();
+
+    /**
+     * @return the latencies of interpreting URI fragments which could not be resolved by the action mapper tree
+     */
+    LatencySnapshot getUnresolvedInterpretation();
+
+    /**
+     * @return a snapshot of the metrics of all routes which have been navigated to so far
+     */
+    List<RouteStatistics> getRouteStatistics();
+}
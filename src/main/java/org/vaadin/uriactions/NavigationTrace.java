@@ -0,0 +1,356 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring buffer which records the most recent navigations of a single {@link
+ * UriFragmentActionNavigatorWrapper} for debugging purposes, e. g. to find out what a user has done before reporting a
+ * slow navigation. A trace is enabled with {@link UriFragmentActionNavigatorWrapper#enableNavigationTrace(int)}.
+ * <p>
+ * For each navigation, the trace records the time of the navigation, the URI fragment, the class of the resolved
+ * action command, the interpretation and execution times, and the outcome of the navigation. All entries are stored in
+ * arrays which are allocated when the trace is created, so that recording a navigation does not allocate any objects.
+ * When the buffer is full, the oldest entries are overwritten.
+ * <p>
+ * Each slot of the ring buffer is guarded by a version number in the manner of a sequence lock. A writer claims the
+ * slot by making its version odd with a compare-and-set, and makes it even again when the entry is complete. Readers
+ * never modify the version: {@link #dump()} reads the version, copies the entry and then checks that the version has
+ * not changed in the meantime. If it has, the entry is read again or, if it keeps changing, skipped. Hence, {@link
+ * #dump()} never blocks a writer and never returns a partially written entry.
+ * <p>
+ * Writers exclude each other from a slot, and a writer which finds its slot claimed by another writer spins until the
+ * slot is released. Such a conflict is rare and short: the navigations of a wrapper are recorded one at a time, and
+ * the execution of an action command is recorded in the slot of its own navigation. Two writers only meet in the same
+ * slot if the ring buffer wraps around while an execution is being recorded, and each of them only holds the slot for
+ * a handful of array stores.
+ * <p>
+ * The recorded navigations can be obtained with {@link #dump()} or written as text with {@link #writeTo(Appendable)}.
+ * The recorded URI fragments can additionally be written as a fragment log with {@link #writeFragmentLog(Appendable)},
+ * which can be replayed, e. g. by a load test or a {@link MapperTreeWarmUp}.
+ */
+public class NavigationTrace {
+    private static final long NOT_EXECUTED = -1L;
+    private static final int MAX_READ_ATTEMPTS = 4;
+    private static final int EXECUTION_LOOKBACK = 16;
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * Outcome of a recorded navigation.
+     */
+    public enum Outcome {
+        /**
+         * The URI fragment has been resolved to an action command.
+         */
+        RESOLVED,
+        /**
+         * The URI fragment has been resolved to an action command which has thrown an exception.
+         */
+        FAILED,
+        /**
+         * The URI fragment could not be resolved by the action mapper tree and has been passed on to the other view
+         * providers of the navigator.
+         */
+        FALLBACK,
+        /**
+         * The URI fragment has been resolved to an action command which has not been admitted for execution.
+         */
+        REJECTED,
+        /**
+         * The navigation has been short-circuited, since the URI fragment belongs to an idempotent action command which
+         * has already been executed for the current navigation state. The URI fragment has neither been interpreted
+         * nor has the action command been executed again.
+         */
+        SHORT_CIRCUITED,
+        /**
+         * The URI fragment has been resolved to an action command which has been executed asynchronously and has been
+         * cancelled by a newer navigation before it has finished.
+         */
+        CANCELLED
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    /**
+     * Version of each slot, which is odd while the entry in the slot is being written.
+     */
+    private final AtomicLongArray versions;
+    /**
+     * Sequence number of the entry in each slot plus one, or zero if the slot has not been written yet.
+     */
+    private final long[] sequences;
+    private final long[] timestamps;
+    private final String[] uriFragments;
+    private final Class<?>[] commandClasses;
+    private final long[] interpretationNanos;
+    private final long[] executionNanos;
+    private final byte[] outcomes;
+
+    /**
+     * Creates a new trace.
+     *
+     * @param capacity the maximum number of navigations kept by this trace. This is rounded up to the next power of
+     *                 two.
+     */
+    public NavigationTrace(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        this.capacity = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        mask = this.capacity - 1;
+        versions = new AtomicLongArray(this.capacity);
+        sequences = new long[this.capacity];
+        timestamps = new long[this.capacity];
+        uriFragments = new String[this.capacity];
+        commandClasses = new Class<?>[this.capacity];
+        interpretationNanos = new long[this.capacity];
+        executionNanos = new long[this.capacity];
+        outcomes = new byte[this.capacity];
+    }
+
+    /**
+     * @return the maximum number of navigations kept by this trace
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the total number of navigations recorded by this trace, including those which have been overwritten
+     */
+    public long getRecordedCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Records the interpretation of a URI fragment.
+     */
+    void recordInterpretation(final String uriFragment, final UriActionCommand command, final long durationNanos,
+                              final Outcome outcome) {
+        final long sequence = nextSequence.getAndIncrement();
+        final int slot = (int) (sequence & mask);
+        beginWrite(slot);
+        sequences[slot] = sequence + 1;
+        timestamps[slot] = System.currentTimeMillis();
+        uriFragments[slot] = uriFragment;
+        commandClasses[slot] = command == null ? null : command.getClass();
+        interpretationNanos[slot] = durationNanos;
+        executionNanos[slot] = NOT_EXECUTED;
+        outcomes[slot] = (byte) outcome.ordinal();
+        endWrite(slot);
+    }
+
+    /**
+     * Adds the execution time to the most recent entry for the given URI fragment which has not been executed yet.
+     * The URI fragment is compared by identity, since it is the same object that has been passed to {@link
+     * #recordInterpretation(String, UriActionCommand, long, Outcome)}.
+     */
+    void recordExecution(final String uriFragment, final long durationNanos, final Throwable failure) {
+        updateUnexecutedEntry(uriFragment, durationNanos, failure != null ? Outcome.FAILED : Outcome.RESOLVED);
+    }
+
+    /**
+     * Marks the most recent entry for the given URI fragment which has not been executed yet as rejected by the
+     * admission control.
+     */
+    void recordRejection(final String uriFragment) {
+        updateUnexecutedEntry(uriFragment, NOT_EXECUTED, Outcome.REJECTED);
+    }
+
+    /**
+     * Marks the most recent entry for the given URI fragment which has not been executed yet as cancelled.
+     */
+    void recordCancellation(final String uriFragment) {
+        updateUnexecutedEntry(uriFragment, NOT_EXECUTED, Outcome.CANCELLED);
+    }
+
+    private void updateUnexecutedEntry(final String uriFragment, final long durationNanos, final Outcome outcome) {
+        final long newestSequence = nextSequence.get() - 1;
+        final long oldestSequence = Math.max(0, newestSequence - Math.min(EXECUTION_LOOKBACK, capacity) + 1);
+        for (long sequence = newestSequence; sequence >= oldestSequence; sequence--) {
+            final int slot = (int) (sequence & mask);
+            // the entries are checked without claiming their slots, only a matching entry is checked again when claimed
+            if (!isUnexecutedEntry(slot, sequence, uriFragment)) {
+                continue;
+            }
+            beginWrite(slot);
+            final boolean matches = isUnexecutedEntry(slot, sequence, uriFragment);
+            if (matches) {
+                executionNanos[slot] = durationNanos;
+                outcomes[slot] = (byte) outcome.ordinal();
+            }
+            endWrite(slot);
+            if (matches) {
+                return;
+            }
+        }
+    }
+
+    private boolean isUnexecutedEntry(final int slot, final long sequence, final String uriFragment) {
+        return sequences[slot] == sequence + 1 && uriFragments[slot] == uriFragment
+                && executionNanos[slot] == NOT_EXECUTED && outcomes[slot] == Outcome.RESOLVED.ordinal();
+    }
+
+    private void beginWrite(final int slot) {
+        while (true) {
+            final long version = versions.get(slot);
+            if ((version & 1) == 0 && versions.compareAndSet(slot, version, version + 1)) {
+                return;
+            }
+            Thread.yield();
+        }
+    }
+
+    private void endWrite(final int slot) {
+        versions.incrementAndGet(slot);
+    }
+
+    /**
+     * Provides a snapshot of the navigations currently kept by this trace. This method does not block the recording of
+     * navigations. A navigation which is recorded or updated again and again while the snapshot is taken may be
+     * missing from the snapshot.
+     *
+     * @return the recorded navigations, oldest first
+     */
+    public List<Entry> dump() {
+        final long next = nextSequence.get();
+        final long first = Math.max(0, next - capacity);
+        final List<Entry> entries = new ArrayList<>((int) (next - first));
+        for (long sequence = first; sequence < next; sequence++) {
+            final Entry entry = readEntry((int) (sequence & mask), sequence);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the entry with the given sequence number from the given slot without claiming the slot.
+     *
+     * @return the entry or {@code null} if the slot does not contain a complete entry with the given sequence number
+     */
+    private Entry readEntry(final int slot, final long sequence) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            final long version = versions.get(slot);
+            if ((version & 1) != 0) {
+                continue;
+            }
+            final long slotSequence = sequences[slot];
+            final Entry entry = new Entry(timestamps[slot], uriFragments[slot], commandClasses[slot],
+                    interpretationNanos[slot], executionNanos[slot], OUTCOMES[outcomes[slot]]);
+            // a compare-and-set instead of a plain read of the version, since only a volatile write keeps the reads
+            // above from being reordered after the check. It does not change the version, so it never blocks a writer.
+            if (versions.compareAndSet(slot, version, version)) {
+                return slotSequence == sequence + 1 ? entry : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the navigations currently kept by this trace as text, one navigation per line.
+     *
+     * @param out the target to write the trace to
+     * @throws IOException if the trace cannot be written
+     */
+    public void writeTo(final Appendable out) throws IOException {
+        for (final Entry entry : dump()) {
+            out.append(entry.toString()).append('\n');
+        }
+    }
+
+    /**
+     * Writes the URI fragments of the navigations currently kept by this trace, one URI fragment per line. This log can
+     * be replayed, e. g. with {@link MapperTreeWarmUp#addFragments(java.io.Reader)}. Note that the log contains all
+     * URI fragments, including those which could not be resolved by the action mapper tree.
+     *
+     * @param out the target to write the fragment log to
+     * @throws IOException if the fragment log cannot be written
+     */
+    public void writeFragmentLog(final Appendable out) throws IOException {
+        for (final Entry entry : dump()) {
+            out.append(entry.getUriFragment()).append('\n');
+        }
+    }
+
+    /**
+     * A single navigation recorded by a {@link NavigationTrace}.
+     */
+    public static class Entry {
+        private final long timestampMillis;
+        private final String uriFragment;
+        private final Class<?> commandClass;
+        private final long interpretationNanos;
+        private final long executionNanos;
+        private final Outcome outcome;
+
+        Entry(final long timestampMillis, final String uriFragment, final Class<?> commandClass,
+              final long interpretationNanos, final long executionNanos, final Outcome outcome) {
+            this.timestampMillis = timestampMillis;
+            this.uriFragment = uriFragment;
+            this.commandClass = commandClass;
+            this.interpretationNanos = interpretationNanos;
+            this.executionNanos = executionNanos;
+            this.outcome = outcome;
+        }
+
+        /**
+         * @return the time of the navigation in milliseconds since the epoch
+         */
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        /**
+         * @return the URI fragment of the navigation
+         */
+        public String getUriFragment() {
+            return uriFragment;
+        }
+
+        /**
+         * @return the class of the resolved action command or {@code null} if the URI fragment has not been resolved
+         */
+        public Class<?> getCommandClass() {
+            return commandClass;
+        }
+
+        /**
+         * @return the time needed to interpret the URI fragment in nanoseconds
+         */
+        public long getInterpretationNanos() {
+            return interpretationNanos;
+        }
+
+        /**
+         * @return the execution time of the action command in nanoseconds or -1 if the action command has not been
+         * executed (yet)
+         */
+        public long getExecutionNanos() {
+            return executionNanos;
+        }
+
+        /**
+         * @return the outcome of the navigation
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(timestampMillis) + " " + outcome + " " + uriFragment
+                    + (commandClass == null ? "" : " -> " + commandClass.getName())
+                    + " interpretation=" + interpretationNanos + "ns"
+                    + (executionNanos == NOT_EXECUTED ? "" : " execution=" + executionNanos + "ns");
+        }
+    }
+}
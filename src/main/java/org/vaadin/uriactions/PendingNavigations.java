@@ -0,0 +1,133 @@
+package org.vaadin.uriactions;
+
+/**
+ * Keyed handoff of resolved {@link ActionExecutionView}s between {@link com.vaadin.navigator.ViewProvider#getViewName(String)}
+ * and {@link com.vaadin.navigator.ViewProvider#getView(String)}. Each resolved view is stored under the navigation
+ * state it has been resolved for, so that several navigations can be pending at the same time. This happens with
+ * nested navigations, e. g. when an action command or a {@link com.vaadin.navigator.ViewChangeListener} redirects to
+ * another URI fragment while the current navigation is still being processed, or when a resolved view has never been
+ * requested by the navigator because the navigation has been aborted.
+ * <p>
+ * The common case of a single pending navigation is handled with a single slot without any further allocations. Only
+ * if more than one navigation is pending, an overflow area with room for {@value #MAX_OVERFLOW_SIZE} further pending
+ * navigations is allocated. If this area is full, the oldest pending navigation is discarded.
+ */
+final class PendingNavigations {
+    static final int MAX_OVERFLOW_SIZE = 8;
+
+    private String firstState;
+    private ActionExecutionView firstView;
+    private String[] overflowStates;
+    private ActionExecutionView[] overflowViews;
+    private int overflowSize;
+
+    /**
+     * Returns the pending view for the given navigation state without removing it.
+     *
+     * @param navigationState the navigation state
+     * @return the pending view for the navigation state or {@code null} if there is none
+     */
+    synchronized ActionExecutionView find(final String navigationState) {
+        if (firstView != null && firstState.equals(navigationState)) {
+            return firstView;
+        }
+        final int index = indexOfOverflow(navigationState);
+        return index < 0 ? null : overflowViews[index];
+    }
+
+    /**
+     * Checks whether the given view is pending for any navigation state.
+     *
+     * @param view the view to check
+     * @return {@code true} if the view is pending
+     */
+    synchronized boolean contains(final ActionExecutionView view) {
+        if (firstView == view) {
+            return true;
+        }
+        for (int i = 0; i < overflowSize; i++) {
+            if (overflowViews[i] == view) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores a resolved view for the given navigation state.
+     *
+     * @param navigationState the navigation state the view has been resolved for
+     * @param view            the resolved view
+     */
+    synchronized void put(final String navigationState, final ActionExecutionView view) {
+        if (firstView == null) {
+            firstState = navigationState;
+            firstView = view;
+            return;
+        }
+        if (overflowStates == null) {
+            overflowStates = new String[MAX_OVERFLOW_SIZE];
+            overflowViews = new ActionExecutionView[MAX_OVERFLOW_SIZE];
+        }
+        if (overflowSize == MAX_OVERFLOW_SIZE) {
+            removeOverflow(0);
+        }
+        overflowStates[overflowSize] = navigationState;
+        overflowViews[overflowSize] = view;
+        overflowSize++;
+    }
+
+    /**
+     * Removes and returns the pending view for the given navigation state.
+     *
+     * @param navigationState the navigation state
+     * @return the pending view for the navigation state or {@code null} if there is none
+     */
+    synchronized ActionExecutionView take(final String navigationState) {
+        final int index = indexOfOverflow(navigationState);
+        if (index >= 0) {
+            // the most recently added pending navigation for this state belongs to the innermost navigation
+            final ActionExecutionView view = overflowViews[index];
+            removeOverflow(index);
+            return view;
+        }
+        if (firstView != null && firstState.equals(navigationState)) {
+            final ActionExecutionView view = firstView;
+            firstState = null;
+            firstView = null;
+            return view;
+        }
+        return null;
+    }
+
+    /**
+     * Discards all pending navigations.
+     */
+    synchronized void clear() {
+        firstState = null;
+        firstView = null;
+        while (overflowSize > 0) {
+            removeOverflow(overflowSize - 1);
+        }
+    }
+
+    private int indexOfOverflow(final String navigationState) {
+        for (int i = overflowSize - 1; i >= 0; i--) {
+            if (overflowStates[i].equals(navigationState)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeOverflow(final int index) {
+        final int moved = overflowSize - index - 1;
+        if (moved > 0) {
+            System.arraycopy(overflowStates, index + 1, overflowStates, index, moved);
+            System.arraycopy(overflowViews, index + 1, overflowViews, index, moved);
+        }
+        overflowSize--;
+        overflowStates[overflowSize] = null;
+        overflowViews[overflowSize] = null;
+    }
+}
@@ -0,0 +1,59 @@
+package org.vaadin.uriactions;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable snapshot of the metrics recorded by {@link NavigationMetrics} for one route. A route is identified by the
+ * class name of the {@link org.roklib.urifragmentrouting.UriActionCommand} a URI fragment has been resolved to. This
+ * keeps the number of distinct routes bounded by the number of action command classes, no matter how many different
+ * parameter values are used in the URI fragments.
+ */
+public class RouteStatistics {
+    private final String route;
+    private final LatencySnapshot interpretation;
+    private final LatencySnapshot execution;
+    private final long executionFailureCount;
+
+    @ConstructorProperties({"route", "interpretation", "execution", "executionFailureCount"})
+    public RouteStatistics(final String route, final LatencySnapshot interpretation, final LatencySnapshot execution,
+                           final long executionFailureCount) {
+        this.route = route;
+        this.interpretation = interpretation;
+        this.execution = execution;
+        this.executionFailureCount = executionFailureCount;
+    }
+
+    /**
+     * @return the fully qualified class name of the action command this route resolves to
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * @return the latencies of interpreting URI fragments which have been resolved to this route
+     */
+    public LatencySnapshot getInterpretation() {
+        return interpretation;
+    }
+
+    /**
+     * @return the latencies of executing the action commands of this route
+     */
+    public LatencySnapshot getExecution() {
+        return execution;
+    }
+
+    /**
+     * @return the number of executions of this route's action commands which have thrown an exception
+     */
+    public long getExecutionFailureCount() {
+        return executionFailureCount;
+    }
+
+    @Override
+    public String toString() {
+        return route + ": interpretation[" + interpretation + "], execution[" + execution + "], failures="
+                + executionFailureCount;
+    }
+}
@@ -0,0 +1,48 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.ui.UI;
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link ActionCommandExecutor} which executes the action commands directly in the current thread, i. e. while the
+ * navigator holds the lock on the current {@link com.vaadin.server.VaadinSession}. Only the loaders of a {@link
+ * TwoPhaseUriActionCommand} are run concurrently with the loader executor.
+ */
+class SynchronousActionCommandExecutor implements ActionCommandExecutor {
+    private final Supplier<Executor> loaderExecutor;
+
+    SynchronousActionCommandExecutor(final Supplier<Executor> loaderExecutor) {
+        this.loaderExecutor = loaderExecutor;
+    }
+
+    @Override
+    public void execute(final String uriFragment, final UriActionCommand command, final UI ui,
+                        final ExecutionObserver observer) {
+        if (!observer.admit(uriFragment, command)) {
+            final UriActionCommand fallbackCommand = observer.rejected(uriFragment, command);
+            if (fallbackCommand != null) {
+                fallbackCommand.run();
+            }
+            return;
+        }
+        final long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            if (command instanceof TwoPhaseUriActionCommand) {
+                final TwoPhaseUriActionCommand twoPhaseCommand = (TwoPhaseUriActionCommand) command;
+                TwoPhaseExecution.load(twoPhaseCommand, loaderExecutor.get());
+                twoPhaseCommand.apply();
+            } else {
+                command.run();
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            observer.executionFinished(uriFragment, command, System.nanoTime() - start, failure);
+        }
+    }
+}
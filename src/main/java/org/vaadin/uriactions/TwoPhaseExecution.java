@@ -0,0 +1,105 @@
+package org.vaadin.uriactions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper class which executes the load phase of a {@link TwoPhaseUriActionCommand}.
+ */
+final class TwoPhaseExecution {
+    private TwoPhaseExecution() {
+    }
+
+    /**
+     * Runs all loaders of the given action command concurrently with the given executor and waits until all of them
+     * have finished. If the action command has only one loader, this loader is run in the current thread. As soon as
+     * one of the loaders fails or the current thread is interrupted while waiting, all other loaders are cancelled:
+     * loaders which have not been started yet are not run anymore and running loaders are interrupted.
+     *
+     * @param command        the action command whose loaders are to be run
+     * @param loaderExecutor the executor used to run the loaders
+     * @throws CancellationException if the current thread has been interrupted while waiting for the loaders
+     */
+    static void load(final TwoPhaseUriActionCommand command, final Executor loaderExecutor) {
+        final Collection<Runnable> loaders = command.getLoaders();
+        if (loaders == null || loaders.isEmpty()) {
+            return;
+        }
+        if (loaders.size() == 1) {
+            loaders.iterator().next().run();
+            return;
+        }
+
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        final AtomicInteger remainingLoaders = new AtomicInteger(loaders.size());
+        final List<Loading> loadings = new ArrayList<>(loaders.size());
+        try {
+            for (final Runnable loader : loaders) {
+                final Loading loading = new Loading(loader, completion, remainingLoaders);
+                loadings.add(loading);
+                loaderExecutor.execute(loading);
+            }
+            completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("load phase of action command " + command + " has been interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("load phase of action command " + command + " failed", cause);
+        } finally {
+            // only has an effect on the interrupt and the failure path, since all loaders have finished otherwise
+            for (final Loading loading : loadings) {
+                loading.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * A single loader of a {@link TwoPhaseUriActionCommand}. When the loader has finished, it completes the given
+     * completion of the load phase if it is the last loader to finish or if it has failed.
+     */
+    private static final class Loading extends FutureTask<Void> {
+        private final CompletableFuture<Void> completion;
+        private final AtomicInteger remainingLoaders;
+
+        private Loading(final Runnable loader, final CompletableFuture<Void> completion,
+                        final AtomicInteger remainingLoaders) {
+            super(loader, null);
+            this.completion = completion;
+            this.remainingLoaders = remainingLoaders;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                get();
+            } catch (ExecutionException e) {
+                completion.completeExceptionally(e.getCause());
+                return;
+            } catch (InterruptedException e) {
+                // cannot happen, since this loading has already finished
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (remainingLoaders.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
+    }
+}
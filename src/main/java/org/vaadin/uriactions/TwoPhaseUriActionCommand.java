@@ -0,0 +1,55 @@
+package org.vaadin.uriactions;
+
+import org.roklib.urifragmentrouting.UriActionCommand;
+
+import java.util.Collection;
+
+/**
+ * {@link UriActionCommand} which is executed in two separate phases: a load phase and an apply phase.
+ * <p>
+ * In the load phase, all data needed by the action command is fetched from the backend. The load phase consists of any
+ * number of independent loaders which are provided by {@link #getLoaders()}. These loaders are executed concurrently
+ * and outside of the lock on the current {@link com.vaadin.server.VaadinSession}. They must therefore not modify the
+ * user interface. When all loaders have finished, the apply phase is started by invoking {@link #apply()}. The apply
+ * phase is always executed while the session lock is held, so that the loaded data can be safely applied to the user
+ * interface.
+ * <p>
+ * This is useful for action commands which need several independent backend lookups. Instead of running these lookups
+ * one after another, they are run in parallel so that the time needed for the load phase is determined by the slowest
+ * lookup.
+ * <p>
+ * If the {@link UriFragmentActionNavigatorWrapper} executes its action commands synchronously, the navigator waits for
+ * all loaders to finish before {@link #apply()} is invoked. If asynchronous execution is enabled (see {@link
+ * UriFragmentActionNavigatorWrapper#enableAsynchronousExecution(java.util.concurrent.Executor)}), both the load phase and
+ * the acquisition of the session lock for the apply phase take place outside of the navigator's request handling.
+ *
+ * @see UriFragmentActionNavigatorWrapper#setLoaderExecutor(java.util.concurrent.Executor)
+ */
+public interface TwoPhaseUriActionCommand extends UriActionCommand {
+    /**
+     * Provides the loaders of the load phase. Each of these loaders is executed in its own thread. The loaders should
+     * store the loaded data in this action command object, so that it can be accessed in {@link #apply()}.
+     *
+     * @return the independent loaders of this action command. May be empty.
+     */
+    Collection<Runnable> getLoaders();
+
+    /**
+     * Applies the loaded data to the user interface. This method is invoked while the lock on the current {@link
+     * com.vaadin.server.VaadinSession} is held, after all loaders returned by {@link #getLoaders()} have finished
+     * successfully.
+     */
+    void apply();
+
+    /**
+     * Runs all loaders one after another in the current thread and subsequently calls {@link #apply()}. This method
+     * is only used when the action command is executed outside of a {@link UriFragmentActionNavigatorWrapper}.
+     */
+    @Override
+    default void run() {
+        for (final Runnable loader : getLoaders()) {
+            loader.run();
+        }
+        apply();
+    }
+}
@@ -0,0 +1,156 @@
+package org.vaadin.uriactions;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Application-level registry for objects which are shared by all {@link UriFragmentActionNavigatorWrapper}s of an
+ * application, such as the {@link CompiledUriActionMapperTree}, the routing context, the {@link
+ * FragmentResolutionCache}, or the {@link NavigationMetrics}. Each shared object is registered under an
+ * application-wide unique key.
+ * <p>
+ * The registry is used when a navigator wrapper is serialized together with its {@link com.vaadin.server.VaadinSession},
+ * e. g. for session replication in a cluster or for session persistence. Instead of copying a shared object into each
+ * serialized session, only its key is written. When the session is deserialized, the navigator wrapper reattaches the
+ * object registered under this key in the deserializing JVM. Hence, all shared objects have to be registered on
+ * application startup on every node of the cluster with the same keys:
+ * <pre>
+ *    public class MyServlet extends VaadinServlet {
+ *        protected void servletInitialized() throws ServletException {
+ *            UriActionRegistry.register("mapperTree", MAPPER_TREE);
+ *            UriActionRegistry.register("routingContext", ROUTING_CONTEXT);
+ *        }
+ *    }
+ * </pre>
+ *
+ * @see UriFragmentActionNavigatorWrapper
+ */
+public final class UriActionRegistry {
+    private static final byte NO_REFERENCE = 0;
+    private static final byte REGISTERED_REFERENCE = 1;
+    private static final byte SERIALIZED_REFERENCE = 2;
+
+    private static final Map<String, Object> OBJECTS_BY_KEY = new HashMap<>();
+    private static final Map<Object, String> KEYS_BY_OBJECT = new IdentityHashMap<>();
+
+    private UriActionRegistry() {
+    }
+
+    /**
+     * Registers the given shared object under the given key.
+     *
+     * @param key          the application-wide unique key of the object
+     * @param sharedObject the object to be registered
+     * @throws IllegalStateException if another object has already been registered under the given key or if the given
+     *                               object has already been registered under another key
+     */
+    public static synchronized void register(final String key, final Object sharedObject) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        if (sharedObject == null) {
+            throw new IllegalArgumentException("shared object must not be null");
+        }
+        final Object registeredObject = OBJECTS_BY_KEY.get(key);
+        if (registeredObject == sharedObject) {
+            return;
+        }
+        if (registeredObject != null) {
+            throw new IllegalStateException("another object is already registered under key '" + key + "'");
+        }
+        if (KEYS_BY_OBJECT.containsKey(sharedObject)) {
+            throw new IllegalStateException("object is already registered under key '" + KEYS_BY_OBJECT.get(sharedObject) + "'");
+        }
+        OBJECTS_BY_KEY.put(key, sharedObject);
+        KEYS_BY_OBJECT.put(sharedObject, key);
+    }
+
+    /**
+     * Removes the object registered under the given key.
+     *
+     * @param key the key of the object to be removed
+     */
+    public static synchronized void unregister(final String key) {
+        final Object sharedObject = OBJECTS_BY_KEY.remove(key);
+        if (sharedObject != null) {
+            KEYS_BY_OBJECT.remove(sharedObject);
+        }
+    }
+
+    /**
+     * Provides the object registered under the given key.
+     *
+     * @param key the key of the object
+     * @return the object registered under the given key or {@code null} if there is none
+     */
+    public static synchronized Object lookup(final String key) {
+        return OBJECTS_BY_KEY.get(key);
+    }
+
+    /**
+     * Provides the key under which the given object has been registered.
+     *
+     * @param sharedObject the registered object
+     * @return the key of the given object or {@code null} if the object has not been registered
+     */
+    public static synchronized String getKey(final Object sharedObject) {
+        return KEYS_BY_OBJECT.get(sharedObject);
+    }
+
+    /**
+     * Writes a reference to the given object to the stream. If the object is registered, only its key is written.
+     * Otherwise, the object itself is written if it is serializable. A non-serializable object which is not registered
+     * is either omitted or rejected with a {@link NotSerializableException}, depending on whether it is required.
+     *
+     * @param out         the output stream
+     * @param value       the referenced object. May be {@code null}.
+     * @param description description of the object used in the exception message
+     * @param required    whether the object must be restored on deserialization
+     */
+    static void writeReference(final ObjectOutputStream out, final Object value, final String description,
+                               final boolean required) throws IOException {
+        final String key = value == null ? null : getKey(value);
+        if (key != null) {
+            out.writeByte(REGISTERED_REFERENCE);
+            out.writeUTF(key);
+        } else if (value instanceof Serializable) {
+            out.writeByte(SERIALIZED_REFERENCE);
+            out.writeObject(value);
+        } else if (value != null && required) {
+            throw new NotSerializableException(description + " is neither serializable nor registered with "
+                    + UriActionRegistry.class.getName());
+        } else {
+            out.writeByte(NO_REFERENCE);
+        }
+    }
+
+    /**
+     * Reads a reference written by {@link #writeReference(ObjectOutputStream, Object, String, boolean)}.
+     *
+     * @param in the input stream
+     * @return the referenced object or {@code null}
+     * @throws InvalidObjectException if the reference is a key under which no object is registered
+     */
+    static Object readReference(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        switch (in.readByte()) {
+            case REGISTERED_REFERENCE:
+                final String key = in.readUTF();
+                final Object sharedObject = lookup(key);
+                if (sharedObject == null) {
+                    throw new InvalidObjectException("no object is registered under key '" + key + "'");
+                }
+                return sharedObject;
+            case SERIALIZED_REFERENCE:
+                return in.readObject();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.vaadin.uriactions;
+
+import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical representation of a URI fragment which is used throughout the navigation path of a {@link
+ * UriFragmentActionNavigatorWrapper}. When the navigator asks the wrapper to resolve a navigation state, the state is
+ * interned with {@link #intern(String)}: all navigator wrappers of the application share a single {@link UriFragment}
+ * object per distinct URI fragment as long as this object is in use. Hence, a URI fragment which is visited by
+ * thousands of sessions is held in memory only once, and the routing data kept by the wrappers (such as the URI
+ * fragment of the current {@link ActionExecutionView}) refers to this single object.
+ * <p>
+ * Equal URI fragments are usually identical objects. Nevertheless, {@link #equals(Object)} compares the values, using
+ * the precomputed hash code to reject unequal URI fragments quickly.
+ * <p>
+ * The intern pool only holds weak references to its URI fragments, so that URI fragments which are not referenced by
+ * any session any longer are garbage collected. A deserialized URI fragment is interned again.
+ */
+public final class UriFragment implements Serializable {
+    private static final Interner INTERNER = new Interner();
+
+    private final String value;
+    private final transient int hash;
+
+    private UriFragment(final String value) {
+        this.value = value;
+        hash = value.hashCode();
+    }
+
+    /**
+     * Provides the canonical {@link UriFragment} object for the given URI fragment. A new object is only
+     * created if there is no canonical object for it yet.
+     *
+     * @param uriFragment the URI fragment to be interned
+     * @return the canonical object for the given URI fragment
+     */
+    public static UriFragment intern(final String uriFragment) {
+        if (uriFragment == null) {
+            throw new IllegalArgumentException("URI fragment must not be null");
+        }
+        return INTERNER.intern(uriFragment);
+    }
+
+    /**
+     * @return the number of URI fragments currently held by the intern pool
+     */
+    static int getInternedCount() {
+        return INTERNER.size();
+    }
+
+    /**
+     * Provides the URI fragment as a string. For an interned URI fragment, this is the same string object for all
+     * navigator wrappers.
+     *
+     * @return the URI fragment
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the given character delimits the path segments of a URI fragment
+     */
+    static boolean isSegmentDelimiter(final char c) {
+        return c == '/' || c == '?' || c == ';';
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof UriFragment)) {
+            return false;
+        }
+        final UriFragment that = (UriFragment) other;
+        return hash == that.hash && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private Object readResolve() {
+        return intern(value);
+    }
+
+    /**
+     * Pool of canonical URI fragments which holds its URI fragments by weak references. Entries whose URI fragment has
+     * been garbage collected are removed on the next call of {@link #intern(String)}.
+     */
+    private static final class Interner {
+        private final ConcurrentMap<String, FragmentReference> fragments = new ConcurrentHashMap<>();
+        private final ReferenceQueue<UriFragment> collectedFragments = new ReferenceQueue<>();
+
+        UriFragment intern(final String value) {
+            removeCollectedFragments();
+            UriFragment created = null;
+            while (true) {
+                final FragmentReference reference = fragments.get(value);
+                final UriFragment existing = reference == null ? null : reference.get();
+                if (existing != null) {
+                    return existing;
+                }
+                if (created == null) {
+                    created = new UriFragment(value);
+                }
+                final FragmentReference newReference = new FragmentReference(created, collectedFragments);
+                if (reference == null ? fragments.putIfAbsent(value, newReference) == null
+                        : fragments.replace(value, reference, newReference)) {
+                    return created;
+                }
+            }
+        }
+
+        int size() {
+            removeCollectedFragments();
+            return fragments.size();
+        }
+
+        private void removeCollectedFragments() {
+            FragmentReference reference;
+            while ((reference = (FragmentReference) collectedFragments.poll()) != null) {
+                fragments.remove(reference.value, reference);
+            }
+        }
+    }
+
+    private static final class FragmentReference extends WeakReference<UriFragment> {
+        private final String value;
+
+        private FragmentReference(final UriFragment fragment, final ReferenceQueue<UriFragment> queue) {
+            super(fragment, queue);
+            value = fragment.value;
+        }
+    }
+}
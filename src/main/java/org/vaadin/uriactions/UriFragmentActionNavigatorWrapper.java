@@ -14,6 +14,13 @@ import com.vaadin.ui.UI;
 import org.roklib.urifragmentrouting.UriActionCommand;
 import org.roklib.urifragmentrouting.UriActionMapperTree;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Wrapper class around a Vaadin {@link Navigator} which adds the option to use URI fragment actions with an externally
  * defined {@link UriActionMapperTree}. The {@link Navigator} can be configured and used as usual by adding views with
@@ -75,19 +82,50 @@ import org.roklib.urifragmentrouting.UriActionMapperTree;
  * ViewProvider} which is automatically installed when an extra {@link ViewDisplay} is set on the navigator. Using this
  * technique, you can still add views in the customary Vaadin-style where this very simple view resolution is
  * sufficient. Using the {@link UriActionMapperTree} can then be reserved for the more complex cases where the standard
- * Vaadin mechanism is not flexible enough.
+ * Vaadin mechanism is not flexible enough. <h1>Serialization</h1> The navigator wrapper is serializable along with its
+ * {@link UI}, e. g. for session replication. The objects which are usually shared by all wrappers of an application,
+ * most notably the {@link CompiledUriActionMapperTree} or the {@link MapperTreePublisher} and the routing context,
+ * should be registered with the {@link UriActionRegistry}. Then, only their registry keys are written into the
+ * serialized session and the shared objects are reattached from the registry when the session is deserialized.
  *
  * @see UriActionMapperTree
  * @see UriActionCommand
  * @see org.roklib.urifragmentrouting.annotation.RoutingContext
  */
-public class UriFragmentActionNavigatorWrapper {
+public class UriFragmentActionNavigatorWrapper implements Serializable {
+    /**
+     * Executor for short-circuited navigations to an {@link IdempotentUriActionCommand} which has already been
+     * executed.
+     */
+    private static final ActionCommandExecutor IDEMPOTENT_NAVIGATION_EXECUTOR = (uriFragment, command, ui, observer) -> {
+    };
+
+    /**
+     * Start time of a navigation whose interpretation time is not recorded, since neither navigation metrics nor a
+     * navigation trace were enabled when the navigation started.
+     */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
     /**
      * The wrapped {@link Navigator}.
      */
     private final Navigator navigator;
-    private UriActionMapperTree uriActionMapperTree;
-    private Object routingContext;
+    private final UriActionViewProvider uriActionViewProvider;
+    private transient volatile CompiledUriActionMapperTree compiledMapperTree;
+    private transient volatile MapperTreePublisher mapperTreePublisher;
+    private transient Object routingContext;
+    private transient FragmentResolutionCache fragmentResolutionCache;
+    private transient ActionCommandExecutor synchronousActionCommandExecutor;
+    private transient ActionCommandExecutor actionCommandExecutor;
+    private transient Executor commandExecutor;
+    private transient AsynchronousExecutionListener asynchronousExecutionListener;
+    private transient Executor loaderExecutor;
+    private transient ActionCommandExecutor.ExecutionObserver executionObserver;
+    private transient NavigationMetrics navigationMetrics;
+    private transient NavigationTrace navigationTrace;
+    private transient AdmissionControl admissionControl;
+    private long coalescingWindowNanos = AsynchronousActionCommandExecutor.NO_COALESCING;
+    private long idempotentNavigationTimeToLiveNanos = Long.MAX_VALUE;
 
     /**
      * Constructs a new navigator wrapper for the given {@link UI} object. When this constructor is used, the wrapped
@@ -155,6 +193,8 @@ public class UriFragmentActionNavigatorWrapper {
      *                               Class)}, or {@link Navigator#addView(String, View)}.
      */
     public UriFragmentActionNavigatorWrapper(final UI ui, final NavigationStateManager navigationStateManager, final ViewDisplay viewDisplay) {
+        initializeExecution();
+        uriActionViewProvider = new UriActionViewProvider();
         final UriActionViewDisplay uriActionViewDisplay = new UriActionViewDisplay(viewDisplay);
 
         if (navigationStateManager != null) {
@@ -162,7 +202,7 @@ public class UriFragmentActionNavigatorWrapper {
         } else {
             navigator = new Navigator(ui, uriActionViewDisplay);
         }
-        navigator.addProvider(new UriActionViewProvider());
+        navigator.addProvider(uriActionViewProvider);
     }
 
     /**
@@ -177,12 +217,81 @@ public class UriFragmentActionNavigatorWrapper {
     /**
      * Sets the {@link UriActionMapperTree} object for this wrapper which defines the complete hierarchical and
      * parameterizable URI fragment structure handled by the wrapped {@link Navigator}.
+     * <p>
+     * When the action mapper tree is set, an index over its root level is built. Using this index, URI fragments which
+     * cannot be resolved by the action mapper tree (e. g. URI fragments for views added to the wrapped navigator with
+     * {@link Navigator#addView(String, View)}) are passed on to the other {@link ViewProvider}s of the navigator without
+     * being interpreted by the action mapper tree. The index also remembers a bounded number of URI fragments which could
+     * not be resolved by the action mapper tree.
+     * <p>
+     * The action mapper tree is compiled with {@link CompiledUriActionMapperTree#compile(UriActionMapperTree)}, so all
+     * wrappers which are passed the same action mapper tree instance share this index. If you share the same action
+     * mapper tree among all {@link UI}s of your application, you may as well compile it once and pass the compiled
+     * tree to {@link #setUriActionMapperTree(CompiledUriActionMapperTree)}.
      *
      * @param actionMapperTree the {@link UriActionMapperTree} for this wrapper which defines the complete URI fragment
      *                         structure handled by the navigator
      */
     public void setUriActionMapperTree(final UriActionMapperTree actionMapperTree) {
-        uriActionMapperTree = actionMapperTree;
+        setUriActionMapperTree(actionMapperTree == null ? null : CompiledUriActionMapperTree.compile(actionMapperTree));
+    }
+
+    /**
+     * Sets an application-scoped {@link CompiledUriActionMapperTree} for this wrapper. In contrast to {@link
+     * #setUriActionMapperTree(UriActionMapperTree)}, the routing data derived from the action mapper tree is not
+     * computed by this wrapper but shared with all other wrappers using the same compiled tree.
+     *
+     * @param compiledMapperTree the compiled action mapper tree for this wrapper which defines the complete URI
+     *                           fragment structure handled by the navigator
+     */
+    public void setUriActionMapperTree(final CompiledUriActionMapperTree compiledMapperTree) {
+        this.compiledMapperTree = compiledMapperTree;
+        mapperTreePublisher = null;
+    }
+
+    /**
+     * Connects this wrapper to the given {@link MapperTreePublisher}, so that each navigation is handled by the
+     * compiled mapper tree which is currently published. A navigation which is in progress while a new version is
+     * published finishes with the version it has started with. This replaces an action mapper tree set with {@link
+     * #setUriActionMapperTree(CompiledUriActionMapperTree)}.
+     *
+     * @param mapperTreePublisher the application-scoped publisher of the compiled mapper tree. May be {@code null} to
+     *                            disconnect this wrapper from its publisher.
+     */
+    public void setMapperTreePublisher(final MapperTreePublisher mapperTreePublisher) {
+        this.mapperTreePublisher = mapperTreePublisher;
+        compiledMapperTree = null;
+    }
+
+    /**
+     * Provides the compiled mapper tree which handles the next navigation, i. e. the currently published version if
+     * this wrapper is connected to a {@link MapperTreePublisher}.
+     */
+    private CompiledUriActionMapperTree getCurrentMapperTree() {
+        final MapperTreePublisher publisher = mapperTreePublisher;
+        return publisher != null ? publisher.getCurrent() : compiledMapperTree;
+    }
+
+    /**
+     * Provides the compiled {@link UriFragmentTemplate} for the given template string. Such a template is used to
+     * assemble URI fragments handled by the current action mapper tree, e. g. for generating links. The compiled
+     * templates are memoized by the {@link CompiledUriActionMapperTree}, so that they are shared by all wrappers using
+     * the same compiled mapper tree.
+     *
+     * @param template a URI fragment containing parameter placeholders of the form {@code {name}}, such as {@code
+     *                 /admin/users/id/{id}/profile}
+     * @return the compiled template
+     * @throws IllegalStateException    if no action mapper tree has been set
+     * @throws IllegalArgumentException if the template is malformed or if its first path segment is not the name of a
+     *                                  root action mapper
+     * @see CompiledUriActionMapperTree#getUriFragmentTemplate(String)
+     */
+    public UriFragmentTemplate getUriFragmentTemplate(final String template) {
+        final CompiledUriActionMapperTree mapperTree = getCurrentMapperTree();
+        if (mapperTree == null) {
+            throw new IllegalStateException("no action mapper tree has been set");
+        }
+        return mapperTree.getUriFragmentTemplate(template);
     }
 
     /**
@@ -196,6 +305,406 @@ public class UriFragmentActionNavigatorWrapper {
         this.routingContext = routingContext;
     }
 
+    /**
+     * Sets an optional {@link FragmentResolutionCache} which memoizes the interpretation results of frequently visited
+     * URI fragments. Since the cache is thread-safe, the same cache object can be shared by all navigator wrappers of an
+     * application. By default, no cache is used so that each URI fragment is interpreted anew by the {@link
+     * UriActionMapperTree}.
+     *
+     * @param fragmentResolutionCache the cache to be used by this wrapper. May be {@code null} to disable caching.
+     * @see CopyableUriActionCommand
+     */
+    public void setFragmentResolutionCache(final FragmentResolutionCache fragmentResolutionCache) {
+        this.fragmentResolutionCache = fragmentResolutionCache;
+    }
+
+    /**
+     * Enables the asynchronous execution of {@link UriActionCommand}s with a default {@link Executor}. If the current
+     * Java runtime supports virtual threads, the default executor runs each action command in a new virtual thread.
+     * Otherwise, a shared pool of daemon threads is used.
+     *
+     * @see #enableAsynchronousExecution(Executor)
+     */
+    public void enableAsynchronousExecution() {
+        enableAsynchronousExecution(AsynchronousActionCommandExecutor.getDefaultExecutor());
+    }
+
+    /**
+     * Enables the asynchronous execution of {@link UriActionCommand}s with the given {@link Executor}.
+     * <p>
+     * By default, the resolved action commands are executed by the wrapped {@link Navigator} while it holds the lock on
+     * the current {@link com.vaadin.server.VaadinSession}. A slow action command, such as one which runs an expensive
+     * database query, thus blocks all other requests for this session. When asynchronous execution is enabled, the
+     * action commands are passed to the given executor instead, so that they are run outside of the session lock.
+     * <p>
+     * As a consequence, asynchronously executed action commands must not modify the user interface directly. Instead,
+     * the results of an action command should be applied to the user interface by an {@link
+     * AsynchronousExecutionListener} (see {@link #setAsynchronousExecutionListener(AsynchronousExecutionListener)}),
+     * whose methods are invoked while the session lock is held. If the navigator navigates to another URI fragment while
+     * an action command is still running, this action command is cancelled by interrupting its thread.
+     *
+     * @param executor the executor used to run the action commands
+     */
+    public void enableAsynchronousExecution(final Executor executor) {
+        actionCommandExecutor.cancel();
+        commandExecutor = executor;
+        final AsynchronousActionCommandExecutor asynchronousExecutor = new AsynchronousActionCommandExecutor(executor,
+                this::getLoaderExecutor, asynchronousExecutionListener);
+        asynchronousExecutor.setCoalescingWindow(coalescingWindowNanos);
+        actionCommandExecutor = asynchronousExecutor;
+    }
+
+    /**
+     * Disables the asynchronous execution of {@link UriActionCommand}s so that they are executed by the wrapped {@link
+     * Navigator} directly again. This is the default.
+     */
+    public void disableAsynchronousExecution() {
+        actionCommandExecutor.cancel();
+        commandExecutor = null;
+        actionCommandExecutor = synchronousActionCommandExecutor;
+    }
+
+    /**
+     * Sets the listener which is notified about the outcome of asynchronously executed {@link UriActionCommand}s.
+     *
+     * @param listener the listener to be notified. May be {@code null}.
+     * @see #enableAsynchronousExecution(Executor)
+     */
+    public void setAsynchronousExecutionListener(final AsynchronousExecutionListener listener) {
+        asynchronousExecutionListener = listener;
+        if (actionCommandExecutor instanceof AsynchronousActionCommandExecutor) {
+            ((AsynchronousActionCommandExecutor) actionCommandExecutor).setListener(listener);
+        }
+    }
+
+    /**
+     * Enables the coalescing of rapid successive navigations. This is useful if the URI fragment changes in quick
+     * succession, e. g. when the user repeatedly clicks the browser's back button or when the URI fragment is updated
+     * while the user types into a search field. Without coalescing, each of these navigations starts its action command
+     * and cancels the previous one.
+     * <p>
+     * When coalescing is enabled, a resolved action command is held back as long as the previously started action
+     * command is still running and until no further navigation has occurred within the given window. If another
+     * navigation arrives in the meantime, the held back action command is superseded by the newer one and will never be
+     * executed. Hence, only the latest of a burst of navigations is executed. The {@link AsynchronousExecutionListener}
+     * is notified about each skipped action command with {@link AsynchronousExecutionListener#executionSkipped(String,
+     * UriActionCommand)}.
+     * <p>
+     * Coalescing only takes effect while asynchronous execution is enabled (see {@link
+     * #enableAsynchronousExecution(Executor)}), since synchronously executed action commands are always finished
+     * before the next navigation is handled.
+     *
+     * @param window the time an action command is held back before it is started. May be zero so that action commands
+     *               are only coalesced while another action command is running.
+     * @param unit   the time unit of the window
+     */
+    public void enableNavigationCoalescing(final long window, final TimeUnit unit) {
+        if (window < 0) {
+            throw new IllegalArgumentException("coalescing window must not be negative");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("time unit must not be null");
+        }
+        setCoalescingWindow(unit.toNanos(window));
+    }
+
+    /**
+     * Disables the coalescing of successive navigations so that each navigation cancels the action command which is
+     * still running. This is the default.
+     *
+     * @see #enableNavigationCoalescing(long, TimeUnit)
+     */
+    public void disableNavigationCoalescing() {
+        setCoalescingWindow(AsynchronousActionCommandExecutor.NO_COALESCING);
+    }
+
+    private void setCoalescingWindow(final long windowNanos) {
+        coalescingWindowNanos = windowNanos;
+        if (actionCommandExecutor instanceof AsynchronousActionCommandExecutor) {
+            ((AsynchronousActionCommandExecutor) actionCommandExecutor).setCoalescingWindow(windowNanos);
+        }
+    }
+
+    /**
+     * Sets the {@link Executor} which runs the loaders of {@link TwoPhaseUriActionCommand}s concurrently. If no loader
+     * executor is set, the same default executor as for {@link #enableAsynchronousExecution()} is used.
+     * <p>
+     * Note that the loader executor must be able to run several loaders in parallel. It should not be the same
+     * executor as the one passed to {@link #enableAsynchronousExecution(Executor)} if this executor has a bounded number
+     * of threads, since the loaders are started from within a thread of this executor.
+     *
+     * @param loaderExecutor the executor for the load phase of two-phase action commands. May be {@code null} to use
+     *                       the default executor.
+     * @see TwoPhaseUriActionCommand
+     */
+    public void setLoaderExecutor(final Executor loaderExecutor) {
+        this.loaderExecutor = loaderExecutor;
+    }
+
+    private Executor getLoaderExecutor() {
+        return loaderExecutor != null ? loaderExecutor : AsynchronousActionCommandExecutor.getDefaultExecutor();
+    }
+
+    /**
+     * Sets the {@link NavigationMetrics} object which records latency and throughput metrics about the navigations
+     * handled by this wrapper. Since the metrics object is thread-safe, the same object can be shared by all navigator
+     * wrappers of an application. By default, no metrics are recorded.
+     *
+     * @param navigationMetrics the metrics object to be used by this wrapper. May be {@code null} to stop recording
+     *                          metrics.
+     */
+    public void setNavigationMetrics(final NavigationMetrics navigationMetrics) {
+        this.navigationMetrics = navigationMetrics;
+    }
+
+    /**
+     * Sets the time for which a successfully executed {@link IdempotentUriActionCommand} is not executed again when
+     * the navigator navigates to the same URI fragment once more. By default, there is no time limit, so that an
+     * idempotent action command is only executed again after the navigator has shown another view in the meantime.
+     *
+     * @param timeToLive the time-to-live of an executed idempotent action command. May be zero to always execute
+     *                   idempotent action commands again.
+     * @param unit       the time unit of the time-to-live
+     * @see IdempotentUriActionCommand
+     */
+    public void setIdempotentNavigationTimeToLive(final long timeToLive, final TimeUnit unit) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("time-to-live must not be negative");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("time unit must not be null");
+        }
+        idempotentNavigationTimeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Sets the {@link AdmissionControl} which limits the execution of expensive action commands. All navigator wrappers
+     * using the same admission control share its limits, so that the admission control can be shared by all wrappers
+     * of a {@link com.vaadin.server.VaadinSession} or of the whole application. An admission control for the whole
+     * application has to be built with {@link AdmissionControl.Builder#buildShared()}. By default, all action commands
+     * are admitted.
+     * <p>
+     * The admission control should be set before the first navigation. If it is replaced while action commands are
+     * being executed, these executions do not count against the limits of the new admission control.
+     *
+     * @param admissionControl the admission control to be used by this wrapper. May be {@code null} to admit all
+     *                         action commands.
+     */
+    public void setAdmissionControl(final AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * Provides the {@link AdmissionControl} of this wrapper.
+     *
+     * @return the admission control of this wrapper or {@code null} if all action commands are admitted
+     */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    private void initializeExecution() {
+        synchronousActionCommandExecutor = new SynchronousActionCommandExecutor(this::getLoaderExecutor);
+        actionCommandExecutor = synchronousActionCommandExecutor;
+        executionObserver = new CommandExecutionObserver();
+    }
+
+    /**
+     * Writes this wrapper to the stream. The objects which are typically shared by all wrappers of an application, such
+     * as the action mapper tree and the routing context, are written as their key in the {@link UriActionRegistry} if
+     * they are registered there. Otherwise, they are written themselves if they are serializable. If the compiled
+     * action mapper tree is not registered, the {@link UriActionMapperTree} it has been compiled from is written
+     * instead and compiled again on deserialization. The objects which hold state shared by all wrappers of an
+     * application, i. e. the action mapper tree, the routing context, the fragment resolution cache and the navigation
+     * metrics, are required to be restored on deserialization, so that this method fails if they are neither registered
+     * nor serializable. All other objects which are neither registered nor serializable, such as a user-provided
+     * executor, are omitted.
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final MapperTreePublisher publisher = mapperTreePublisher;
+        final CompiledUriActionMapperTree mapperTree = compiledMapperTree;
+        final boolean writeUncompiled = publisher == null && mapperTree != null
+                && UriActionRegistry.getKey(mapperTree) == null;
+        out.writeBoolean(writeUncompiled);
+        if (writeUncompiled) {
+            UriActionRegistry.writeReference(out, mapperTree.getUriActionMapperTree(), "action mapper tree", true);
+        } else {
+            UriActionRegistry.writeReference(out, publisher != null ? publisher : mapperTree, "action mapper tree", true);
+        }
+        UriActionRegistry.writeReference(out, routingContext, "routing context", true);
+        UriActionRegistry.writeReference(out, fragmentResolutionCache, "fragment resolution cache", true);
+        UriActionRegistry.writeReference(out, navigationMetrics, "navigation metrics", true);
+        UriActionRegistry.writeReference(out, asynchronousExecutionListener, "asynchronous execution listener", true);
+        UriActionRegistry.writeReference(out, loaderExecutor, "loader executor", false);
+        UriActionRegistry.writeReference(out, admissionControl, "admission control", false);
+        out.writeBoolean(commandExecutor != null);
+        if (commandExecutor != null) {
+            final boolean defaultExecutor = commandExecutor == AsynchronousActionCommandExecutor.getDefaultExecutor();
+            UriActionRegistry.writeReference(out, defaultExecutor ? null : commandExecutor, "executor", false);
+        }
+    }
+
+    /**
+     * Reads this wrapper from the stream and reattaches the shared objects from the {@link UriActionRegistry}. If
+     * asynchronous execution has been enabled with an executor which could not be restored, the default executor is
+     * used instead.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initializeExecution();
+        final boolean uncompiled = in.readBoolean();
+        final Object mapperTree = UriActionRegistry.readReference(in);
+        if (uncompiled) {
+            compiledMapperTree = CompiledUriActionMapperTree.compile((UriActionMapperTree) mapperTree);
+        } else if (mapperTree instanceof MapperTreePublisher) {
+            mapperTreePublisher = (MapperTreePublisher) mapperTree;
+        } else {
+            compiledMapperTree = (CompiledUriActionMapperTree) mapperTree;
+        }
+        routingContext = UriActionRegistry.readReference(in);
+        fragmentResolutionCache = (FragmentResolutionCache) UriActionRegistry.readReference(in);
+        navigationMetrics = (NavigationMetrics) UriActionRegistry.readReference(in);
+        asynchronousExecutionListener = (AsynchronousExecutionListener) UriActionRegistry.readReference(in);
+        loaderExecutor = (Executor) UriActionRegistry.readReference(in);
+        admissionControl = (AdmissionControl) UriActionRegistry.readReference(in);
+        if (in.readBoolean()) {
+            final Executor executor = (Executor) UriActionRegistry.readReference(in);
+            enableAsynchronousExecution(executor != null ? executor : AsynchronousActionCommandExecutor.getDefaultExecutor());
+        }
+    }
+
+    /**
+     * Enables a {@link NavigationTrace} for this wrapper which records the most recent navigations. If a trace is
+     * already enabled, it is replaced with a new, empty trace. The trace is not serialized with this wrapper.
+     *
+     * @param capacity the maximum number of navigations kept by the trace
+     * @return the new trace
+     */
+    public NavigationTrace enableNavigationTrace(final int capacity) {
+        navigationTrace = new NavigationTrace(capacity);
+        return navigationTrace;
+    }
+
+    /**
+     * Disables the {@link NavigationTrace} of this wrapper. This is the default.
+     */
+    public void disableNavigationTrace() {
+        navigationTrace = null;
+    }
+
+    /**
+     * Provides the {@link NavigationTrace} of this wrapper.
+     *
+     * @return the trace of this wrapper or {@code null} if no trace has been enabled
+     * @see #enableNavigationTrace(int)
+     */
+    public NavigationTrace getNavigationTrace() {
+        return navigationTrace;
+    }
+
+    private void fragmentInterpreted(final String uriFragment, final UriActionCommand command, final long startNanos) {
+        final NavigationMetrics metrics = navigationMetrics;
+        final NavigationTrace trace = navigationTrace;
+        if (metrics == null && trace == null || startNanos == NOT_TIMED) {
+            return;
+        }
+        final long durationNanos = System.nanoTime() - startNanos;
+        if (metrics != null) {
+            metrics.recordInterpretation(uriFragment, command, durationNanos);
+        }
+        if (trace != null) {
+            trace.recordInterpretation(uriFragment, command, durationNanos,
+                    command != null ? NavigationTrace.Outcome.RESOLVED : NavigationTrace.Outcome.FALLBACK);
+        }
+    }
+
+    private void navigationShortCircuited(final String uriFragment, final UriActionCommand command,
+                                          final long startNanos) {
+        final NavigationMetrics metrics = navigationMetrics;
+        final NavigationTrace trace = navigationTrace;
+        if (metrics == null && trace == null || startNanos == NOT_TIMED) {
+            return;
+        }
+        final long durationNanos = System.nanoTime() - startNanos;
+        if (metrics != null) {
+            metrics.recordShortCircuit(uriFragment, command, durationNanos);
+        }
+        if (trace != null) {
+            trace.recordInterpretation(uriFragment, command, durationNanos, NavigationTrace.Outcome.SHORT_CIRCUITED);
+        }
+    }
+
+    private void commandExecuted(final String uriFragment, final UriActionCommand command, final long durationNanos,
+                                 final Throwable failure) {
+        if (command instanceof IdempotentUriActionCommand && failure == null) {
+            uriActionViewProvider.idempotentCommandExecuted(uriFragment, command);
+        }
+        final NavigationMetrics metrics = navigationMetrics;
+        if (metrics != null) {
+            metrics.recordExecution(command, durationNanos, failure);
+        }
+        final NavigationTrace trace = navigationTrace;
+        if (trace != null) {
+            trace.recordExecution(uriFragment, durationNanos, failure);
+        }
+    }
+
+    /**
+     * {@link ActionCommandExecutor.ExecutionObserver} which enforces the {@link AdmissionControl} of this wrapper and
+     * records the executed action commands.
+     */
+    private final class CommandExecutionObserver implements ActionCommandExecutor.ExecutionObserver {
+        @Override
+        public boolean admit(final String uriFragment, final UriActionCommand command) {
+            final AdmissionControl currentAdmissionControl = admissionControl;
+            if (currentAdmissionControl == null || currentAdmissionControl.tryAcquire(uriFragment, command)) {
+                return true;
+            }
+            final NavigationTrace trace = navigationTrace;
+            if (trace != null) {
+                trace.recordRejection(uriFragment);
+            }
+            return false;
+        }
+
+        @Override
+        public UriActionCommand rejected(final String uriFragment, final UriActionCommand command) {
+            final AdmissionControl currentAdmissionControl = admissionControl;
+            return currentAdmissionControl == null ? null : currentAdmissionControl.rejected(uriFragment, command);
+        }
+
+        @Override
+        public void executionFinished(final String uriFragment, final UriActionCommand command, final long durationNanos,
+                                      final Throwable failure) {
+            final AdmissionControl currentAdmissionControl = admissionControl;
+            if (currentAdmissionControl != null) {
+                currentAdmissionControl.release(uriFragment, command);
+            }
+            commandExecuted(uriFragment, command, durationNanos, failure);
+        }
+
+        @Override
+        public void executionCancelled(final String uriFragment, final UriActionCommand command) {
+            final AdmissionControl currentAdmissionControl = admissionControl;
+            if (currentAdmissionControl != null) {
+                currentAdmissionControl.release(uriFragment, command);
+            }
+            final NavigationTrace trace = navigationTrace;
+            if (trace != null) {
+                trace.recordCancellation(uriFragment);
+            }
+        }
+    }
+
+    private UriActionCommand interpretFragment(final CompiledUriActionMapperTree mapperTree,
+                                               final UriFragment uriFragment) {
+        if (fragmentResolutionCache != null) {
+            return fragmentResolutionCache.resolve(mapperTree.getUriActionMapperTree(), uriFragment, routingContext);
+        }
+        return mapperTree.getUriActionMapperTree().interpretFragment(uriFragment.getValue(), routingContext, false);
+    }
+
     /**
      * {@link ViewDisplay} which delegates the task to display the current {@link View} to a wrapped {@link ViewDisplay}
      * if the {@link View} to be shown is <em>not</em> of type {@link ActionExecutionView}. The wrapped {@link
@@ -211,8 +720,16 @@ public class UriFragmentActionNavigatorWrapper {
 
         @Override
         public void showView(final View view) {
-            if (userProvidedDisplay != null && !(view instanceof ActionExecutionView)) {
-                userProvidedDisplay.showView(view);
+            uriActionViewProvider.viewShown(view);
+            if (!(view instanceof ActionExecutionView)) {
+                actionCommandExecutor.cancel();
+                final NavigationMetrics metrics = navigationMetrics;
+                if (metrics != null) {
+                    metrics.recordFallback(view);
+                }
+                if (userProvidedDisplay != null) {
+                    userProvidedDisplay.showView(view);
+                }
             }
             // Otherwise there is nothing to do in this case. Action command is executed in ActionExecutionView.enter().
         }
@@ -220,43 +737,145 @@ public class UriFragmentActionNavigatorWrapper {
 
     /**
      * {@link ViewProvider} which resolves the current URI fragment against the current {@link UriActionMapperTree} and
-     * creates a {@link ActionExecutionView} object with the corresponding {@link UriActionCommand} object if the
-     * fragment could successfully be resolved.
+     * binds an {@link ActionExecutionView} to the corresponding {@link UriActionCommand} object if the fragment could
+     * successfully be resolved. The views are taken from an {@link ActionExecutionViewPool} so that they are reused
+     * across navigations. The resolved views are handed over from {@link #getViewName(String)} to {@link
+     * #getView(String)} keyed by their navigation state, so that nested navigations can be handled.
      */
     private class UriActionViewProvider implements ViewProvider {
-        private ActionExecutionView currentView;
-        private String currentNavigationState;
+        private transient PendingNavigations pendingNavigations = new PendingNavigations();
+        private transient ActionExecutionViewPool viewPool = new ActionExecutionViewPool();
+        private transient UriFragment shownNavigationState;
+        private transient IdempotentNavigation resolvedIdempotentNavigation;
+        private transient IdempotentNavigation executedIdempotentNavigation;
 
         @Override
         public String getViewName(final String viewAndParameters) {
-            if (uriActionMapperTree == null) {
+            final CompiledUriActionMapperTree mapperTree = getCurrentMapperTree();
+            if (mapperTree == null) {
                 return null;
             }
-            if (currentView != null && currentNavigationState != null) {
-                if (currentNavigationState.equals(viewAndParameters)) {
-                    return viewAndParameters;
-                } else {
-                    throw new IllegalStateException(
-                            "Access synchronization problem: this action navigator is currently handling another request. " +
-                                    "Currently handled navigation state is: " + currentNavigationState +
-                                    ". Current action is: " + currentView.getUriActionCommand());
-                }
+            // the clock is only read if the interpretation time is recorded at all
+            final long start = navigationMetrics != null || navigationTrace != null ? System.nanoTime() : NOT_TIMED;
+            if (!mapperTree.getIndex().mayResolve(viewAndParameters)) {
+                // only URI fragments which may be resolved are interned, so that unknown ones are rejected right away
+                fragmentInterpreted(viewAndParameters, null, start);
+                return null;
+            }
+            final UriFragment uriFragment = UriFragment.intern(viewAndParameters);
+            final String navigationState = uriFragment.getValue();
+            if (pendingNavigations.find(navigationState) != null) {
+                return navigationState;
+            }
+            final UriActionCommand executedCommand = findExecutedIdempotentCommand(mapperTree, uriFragment);
+            if (executedCommand != null) {
+                final ActionExecutionView view = viewPool.acquire(pendingNavigations);
+                view.bind(uriFragment, executedCommand, IDEMPOTENT_NAVIGATION_EXECUTOR, executionObserver);
+                pendingNavigations.put(navigationState, view);
+                navigationShortCircuited(navigationState, executedCommand, start);
+                return navigationState;
             }
 
-            final UriActionCommand action = uriActionMapperTree.interpretFragment(viewAndParameters, routingContext, false);
+            final UriActionCommand action = interpretFragment(mapperTree, uriFragment);
             if (action != null) {
-                currentView = new ActionExecutionView(action);
-                currentNavigationState = viewAndParameters;
+                final ActionExecutionView view = viewPool.acquire(pendingNavigations);
+                view.bind(uriFragment, action, actionCommandExecutor, executionObserver);
+                pendingNavigations.put(navigationState, view);
+                if (action instanceof IdempotentUriActionCommand) {
+                    idempotentCommandResolved(mapperTree, uriFragment, action);
+                }
+            } else {
+                mapperTree.getIndex().rememberUnresolvable(navigationState);
             }
-            return action != null ? viewAndParameters : null;
+            fragmentInterpreted(navigationState, action, start);
+            return action != null ? navigationState : null;
         }
 
         @Override
         public View getView(final String viewName) {
-            View returnedView = currentView;
-            currentNavigationState = null;
-            currentView = null;
-            return returnedView;
+            final ActionExecutionView view = pendingNavigations.take(viewName);
+            if (view != null) {
+                viewPool.viewTaken(view);
+            }
+            return view;
+        }
+
+        /**
+         * Called when the navigator shows the given view. Discards all resolved views which have not been requested by
+         * the navigator, since all navigations started before have either been completed or aborted at that point.
+         */
+        void viewShown(final View view) {
+            pendingNavigations.clear();
+            viewPool.viewShown(view);
+            final UriFragment navigationState =
+                    view instanceof ActionExecutionView ? ((ActionExecutionView) view).getInternedUriFragment() : null;
+            synchronized (this) {
+                shownNavigationState = navigationState;
+                final IdempotentNavigation navigation = executedIdempotentNavigation;
+                if (navigation != null && !navigation.navigationState.equals(navigationState)) {
+                    executedIdempotentNavigation = null;
+                }
+            }
+        }
+
+        private synchronized void idempotentCommandResolved(final CompiledUriActionMapperTree mapperTree,
+                                                            final UriFragment navigationState,
+                                                            final UriActionCommand command) {
+            resolvedIdempotentNavigation = new IdempotentNavigation(navigationState, command, mapperTree, routingContext);
+        }
+
+        /**
+         * Remembers the given idempotent action command as executed if it belongs to the navigation state currently
+         * shown by the navigator.
+         */
+        synchronized void idempotentCommandExecuted(final String navigationState, final UriActionCommand command) {
+            final IdempotentNavigation navigation = resolvedIdempotentNavigation;
+            if (navigation != null && navigation.command == command && shownNavigationState != null
+                    && navigationState.equals(shownNavigationState.getValue())) {
+                navigation.executedAtNanos = System.nanoTime();
+                executedIdempotentNavigation = navigation;
+                resolvedIdempotentNavigation = null;
+            }
+        }
+
+        private synchronized UriActionCommand findExecutedIdempotentCommand(final CompiledUriActionMapperTree mapperTree,
+                                                                           final UriFragment navigationState) {
+            final IdempotentNavigation navigation = executedIdempotentNavigation;
+            if (navigation == null || navigation.mapperTree != mapperTree || navigation.routingContext != routingContext
+                    || !navigation.navigationState.equals(navigationState)) {
+                return null;
+            }
+            if (System.nanoTime() - navigation.executedAtNanos >= idempotentNavigationTimeToLiveNanos) {
+                executedIdempotentNavigation = null;
+                return null;
+            }
+            return navigation.command;
+        }
+
+        private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            pendingNavigations = new PendingNavigations();
+            viewPool = new ActionExecutionViewPool();
+        }
+    }
+
+    /**
+     * Navigation to an {@link IdempotentUriActionCommand} together with the action mapper tree and routing context the
+     * command has been resolved with.
+     */
+    private static final class IdempotentNavigation {
+        private final UriFragment navigationState;
+        private final UriActionCommand command;
+        private final CompiledUriActionMapperTree mapperTree;
+        private final Object routingContext;
+        private long executedAtNanos;
+
+        private IdempotentNavigation(final UriFragment navigationState, final UriActionCommand command,
+                                     final CompiledUriActionMapperTree mapperTree, final Object routingContext) {
+            this.navigationState = navigationState;
+            this.command = command;
+            this.mapperTree = mapperTree;
+            this.routingContext = routingContext;
         }
     }
 }
@@ -0,0 +1,331 @@
+package org.vaadin.uriactions;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Precompiled template for assembling URI fragments, e. g. for generating the links of a table with thousands of rows.
+ * A template is a URI fragment in which the parameter values are replaced by named placeholders in curly braces, such
+ * as {@code /admin/users/id/{id}/profile}. When the template is compiled, it is split into its literal parts and its
+ * parameters once. Assembling a URI fragment then only appends the literal parts and the percent-encoded parameter
+ * values to a buffer.
+ * <p>
+ * To assemble the URI fragments for a whole batch of items, use {@link #assembleAll(Collection,
+ * ParameterValueExtractor)} or {@link #assembleStream(Stream, ParameterValueExtractor)}. These methods reuse a buffer
+ * which keeps the static prefix of the template, i. e. the literal part in front of the first parameter, so that this
+ * prefix is only written once per batch. {@code assembleAll()} uses a single buffer, {@code assembleStream()} uses one
+ * buffer per thread processing the stream.
+ * <p>
+ * Templates are immutable and thread-safe. They are usually obtained from a {@link UriFragmentActionNavigatorWrapper}
+ * with {@link UriFragmentActionNavigatorWrapper#getUriFragmentTemplate(String)}, which memoizes the compiled templates
+ * in the application-scoped {@link CompiledUriActionMapperTree}:
+ * <pre>
+ *    UriFragmentTemplate template = navigatorWrapper.getUriFragmentTemplate("/admin/users/id/{id}/profile")
+ *        .withPrefix("#!");
+ *    List&lt;String&gt; links = template.assembleAll(users, (user, parameterIndex) -&gt; user.getId());
+ * </pre>
+ */
+public final class UriFragmentTemplate implements Serializable {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final String template;
+    private final char[][] literals;
+    private final List<String> parameterNames;
+    private final int estimatedLength;
+
+    private UriFragmentTemplate(final String template, final char[][] literals, final List<String> parameterNames) {
+        this.template = template;
+        this.literals = literals;
+        this.parameterNames = parameterNames;
+        int length = 0;
+        for (final char[] literal : literals) {
+            length += literal.length;
+        }
+        estimatedLength = length + 8 * parameterNames.size();
+    }
+
+    /**
+     * Compiles the given template.
+     *
+     * @param template a URI fragment containing parameter placeholders of the form {@code {name}}
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template contains a malformed placeholder
+     */
+    public static UriFragmentTemplate compile(final String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("template must not be null");
+        }
+        final List<char[]> literals = new ArrayList<>();
+        final List<String> parameterNames = new ArrayList<>();
+        int literalStart = 0;
+        int index = template.indexOf('{');
+        while (index >= 0) {
+            final int end = template.indexOf('}', index);
+            if (end < 0) {
+                throw new IllegalArgumentException("unclosed parameter placeholder in template '" + template + "'");
+            }
+            final String name = template.substring(index + 1, end);
+            if (name.isEmpty() || name.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("invalid parameter placeholder in template '" + template + "'");
+            }
+            literals.add(template.substring(literalStart, index).toCharArray());
+            parameterNames.add(name);
+            literalStart = end + 1;
+            index = template.indexOf('{', literalStart);
+        }
+        if (template.indexOf('}', literalStart) >= 0) {
+            throw new IllegalArgumentException("unopened parameter placeholder in template '" + template + "'");
+        }
+        literals.add(template.substring(literalStart).toCharArray());
+        return new UriFragmentTemplate(template, literals.toArray(new char[literals.size()][]),
+                Collections.unmodifiableList(parameterNames));
+    }
+
+    /**
+     * Returns a copy of this template with the given literal prefix, e. g. {@code #!} for generating links which are
+     * handled by a Vaadin {@link com.vaadin.navigator.Navigator}.
+     *
+     * @param prefix the prefix to be prepended to all assembled URI fragments
+     * @return a new template with the given prefix
+     */
+    public UriFragmentTemplate withPrefix(final String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("prefix must not be null");
+        }
+        final char[][] prefixedLiterals = literals.clone();
+        prefixedLiterals[0] = (prefix + new String(literals[0])).toCharArray();
+        return new UriFragmentTemplate(prefix + template, prefixedLiterals, parameterNames);
+    }
+
+    /**
+     * Provides the template string this template has been compiled from.
+     *
+     * @return the template string
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Provides the static prefix of this template, i. e. the literal part in front of the first parameter.
+     *
+     * @return the static prefix
+     */
+    public String getStaticPrefix() {
+        return new String(literals[0]);
+    }
+
+    /**
+     * Provides the names of the parameters of this template in the order of their occurrence.
+     *
+     * @return the unmodifiable list of parameter names
+     */
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Assembles a URI fragment from the given parameter values.
+     *
+     * @param parameterValues the parameter values in the order of {@link #getParameterNames()}
+     * @return the assembled URI fragment
+     * @throws IllegalArgumentException if the number of values does not match the number of parameters or if a value
+     *                                  is {@code null}
+     */
+    public String assemble(final Object... parameterValues) {
+        if (parameterValues.length != parameterNames.size()) {
+            throw new IllegalArgumentException("template '" + template + "' requires " + parameterNames.size()
+                    + " parameter values but " + parameterValues.length + " were given");
+        }
+        final StringBuilder buffer = new StringBuilder(estimatedLength).append(literals[0]);
+        return assemble(buffer, parameterValues, (values, parameterIndex) -> values[parameterIndex]);
+    }
+
+    /**
+     * Assembles a URI fragment from the given parameter values.
+     *
+     * @param parameterValues the parameter values keyed by parameter name
+     * @return the assembled URI fragment
+     * @throws IllegalArgumentException if a parameter value is missing
+     */
+    public String assemble(final Map<String, ?> parameterValues) {
+        final StringBuilder buffer = new StringBuilder(estimatedLength).append(literals[0]);
+        return assemble(buffer, parameterValues, (values, parameterIndex) -> values.get(parameterNames.get(parameterIndex)));
+    }
+
+    /**
+     * Assembles the URI fragments for all given items. The parameter values for each item are obtained from the given
+     * extractor. All URI fragments are assembled in the same buffer.
+     *
+     * @param items     the items to assemble a URI fragment for
+     * @param extractor provides the parameter values of an item
+     * @param <T>       the type of the items
+     * @return the assembled URI fragments in the order of the given items
+     */
+    public <T> List<String> assembleAll(final Collection<? extends T> items, final ParameterValueExtractor<? super T> extractor) {
+        if (extractor == null) {
+            throw new IllegalArgumentException("parameter value extractor must not be null");
+        }
+        final List<String> fragments = new ArrayList<>(items.size());
+        final StringBuilder buffer = new StringBuilder(estimatedLength).append(literals[0]);
+        for (final T item : items) {
+            fragments.add(assemble(buffer, item, extractor));
+        }
+        return fragments;
+    }
+
+    /**
+     * Lazily assembles the URI fragments for the items of the given stream, e. g. for the items provided by a lazy
+     * data source. Each thread processing the returned stream assembles its URI fragments in its own buffer, so that
+     * the returned stream may be turned into a parallel stream later on.
+     *
+     * @param items     the items to assemble a URI fragment for
+     * @param extractor provides the parameter values of an item
+     * @param <T>       the type of the items
+     * @return a stream of the assembled URI fragments
+     */
+    public <T> Stream<String> assembleStream(final Stream<? extends T> items, final ParameterValueExtractor<? super T> extractor) {
+        if (extractor == null) {
+            throw new IllegalArgumentException("parameter value extractor must not be null");
+        }
+        // whether the stream is processed in parallel is only decided by its terminal operation
+        final ThreadLocal<StringBuilder> buffers =
+                ThreadLocal.withInitial(() -> new StringBuilder(estimatedLength).append(literals[0]));
+        return items.map(item -> assemble(buffers.get(), item, extractor));
+    }
+
+    /**
+     * Assembles a URI fragment in the given buffer, which has to contain the static prefix of this template. The buffer
+     * is reset to the static prefix afterwards, so that it can be reused for the next URI fragment.
+     */
+    private <T> String assemble(final StringBuilder buffer, final T item, final ParameterValueExtractor<? super T> extractor) {
+        final int prefixLength = literals[0].length;
+        for (int i = 0; i < parameterNames.size(); i++) {
+            final Object value = extractor.getParameterValue(item, i);
+            if (value == null) {
+                buffer.setLength(prefixLength);
+                throw new IllegalArgumentException("no value given for parameter '" + parameterNames.get(i)
+                        + "' of template '" + template + "'");
+            }
+            appendEncoded(buffer, value);
+            buffer.append(literals[i + 1]);
+        }
+        final String fragment = buffer.toString();
+        buffer.setLength(prefixLength);
+        return fragment;
+    }
+
+    /**
+     * Checks whether the given URI fragment matches this template, i. e. whether it could have been assembled from this
+     * template. Each parameter has to match at least one character which is not a slash.
+     *
+     * @param uriFragment the URI fragment to be checked
+     * @return {@code true} if the URI fragment matches this template
+     */
+    public boolean matches(final String uriFragment) {
+        if (uriFragment == null || !regionMatches(uriFragment, 0, literals[0])) {
+            return false;
+        }
+        int position = literals[0].length;
+        for (int i = 1; i < literals.length; i++) {
+            final char[] literal = literals[i];
+            final int valueStart = position;
+            position = literal.length == 0 ? uriFragment.length() : indexOf(uriFragment, literal, valueStart + 1);
+            if (position <= valueStart) {
+                return false;
+            }
+            final int slash = uriFragment.indexOf('/', valueStart);
+            if (slash >= 0 && slash < position) {
+                return false;
+            }
+            position += literal.length;
+        }
+        return position == uriFragment.length();
+    }
+
+    private static boolean regionMatches(final String string, final int offset, final char[] literal) {
+        if (string.length() - offset < literal.length) {
+            return false;
+        }
+        for (int j = 0; j < literal.length; j++) {
+            if (string.charAt(offset + j) != literal[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(final String string, final char[] literal, final int fromIndex) {
+        final int last = string.length() - literal.length;
+        for (int i = fromIndex; i <= last; i++) {
+            if (regionMatches(string, i, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendEncoded(final StringBuilder buffer, final Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            buffer.append(((Number) value).longValue());
+            return;
+        }
+        final String string = value.toString();
+        for (int i = 0; i < string.length(); i++) {
+            final char character = string.charAt(i);
+            if (isUnreserved(character)) {
+                buffer.append(character);
+            } else {
+                appendPercentEncoded(buffer, string.substring(i));
+                return;
+            }
+        }
+    }
+
+    private static void appendPercentEncoded(final StringBuilder buffer, final String string) {
+        for (final byte b : string.getBytes(StandardCharsets.UTF_8)) {
+            final char character = (char) (b & 0xFF);
+            if (isUnreserved(character)) {
+                buffer.append(character);
+            } else {
+                buffer.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+        }
+    }
+
+    private static boolean isUnreserved(final char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z')
+                || (character >= '0' && character <= '9')
+                || character == '-' || character == '_' || character == '.' || character == '~';
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Provides the parameter values of the items for which URI fragments are assembled.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface ParameterValueExtractor<T> {
+        /**
+         * Provides the value of a parameter of the given item. Integral values, such as {@link Long} or {@link
+         * Integer}, are appended without any further conversion. For all other values, their {@link Object#toString()}
+         * representation is percent-encoded.
+         *
+         * @param item           the item for which a URI fragment is assembled
+         * @param parameterIndex the index of the parameter in {@link UriFragmentTemplate#getParameterNames()}
+         * @return the parameter value. Must not be {@code null}.
+         */
+        Object getParameterValue(T item, int parameterIndex);
+    }
+}
@@ -0,0 +1,71 @@
+package org.vaadin.uriactions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of a {@link MapperTreeWarmUp}. The interpretation latencies of the first, validating pass over all URI
+ * fragments are reported separately from the latencies of the subsequent iterations, so that the effect of the
+ * warm-up can be assessed.
+ */
+public class WarmUpReport {
+    private final int fragmentCount;
+    private final int iterations;
+    private final long totalNanos;
+    private final LatencySnapshot coldInterpretation;
+    private final LatencySnapshot warmInterpretation;
+
+    WarmUpReport(final int fragmentCount, final int iterations, final long totalNanos,
+                 final LatencySnapshot coldInterpretation, final LatencySnapshot warmInterpretation) {
+        this.fragmentCount = fragmentCount;
+        this.iterations = iterations;
+        this.totalNanos = totalNanos;
+        this.coldInterpretation = coldInterpretation;
+        this.warmInterpretation = warmInterpretation;
+    }
+
+    /**
+     * @return the number of URI fragments replayed by the warm-up
+     */
+    public int getFragmentCount() {
+        return fragmentCount;
+    }
+
+    /**
+     * @return the number of iterations over all URI fragments after the validating pass
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the total duration of the warm-up in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the interpretation latencies of the first pass over all URI fragments
+     */
+    public LatencySnapshot getColdInterpretation() {
+        return coldInterpretation;
+    }
+
+    /**
+     * @return the interpretation latencies of all subsequent iterations
+     */
+    public LatencySnapshot getWarmInterpretation() {
+        return warmInterpretation;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpReport{" +
+                "fragmentCount=" + fragmentCount +
+                ", iterations=" + iterations +
+                ", totalMillis=" + TimeUnit.NANOSECONDS.toMillis(totalNanos) +
+                ", coldInterpretation=" + coldInterpretation +
+                ", warmInterpretation=" + warmInterpretation +
+                '}';
+    }
+}
@@ -0,0 +1,112 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class AdmissionControlTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private AtomicInteger exports;
+    private AtomicInteger fallbacks;
+
+    @Before
+    public void setUp() {
+        exports = new AtomicInteger();
+        fallbacks = new AtomicInteger();
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(),
+                view -> {
+                });
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("export").onActionFactory(() -> (UriActionCommand) exports::incrementAndGet).finishMapper()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.getNavigator().addView("separate_view", (View) event -> {
+        });
+    }
+
+    @Test
+    public void testRejectedNavigationRunsFallbackCommand() {
+        uriFragmentActionNavigatorWrapper.setAdmissionControl(AdmissionControl.builder()
+                .limitRoute("/export", AdmissionLimit.rate(2, 1, TimeUnit.HOURS))
+                .onRejection((uriFragment, command) -> fallbacks::incrementAndGet)
+                .build());
+        final NavigationTrace trace = uriFragmentActionNavigatorWrapper.enableNavigationTrace(8);
+
+        for (int i = 0; i < 3; i++) {
+            uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/export");
+            uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        }
+
+        assertThat(exports.get(), equalTo(2));
+        assertThat(fallbacks.get(), equalTo(1));
+        final AdmissionRule rule = uriFragmentActionNavigatorWrapper.getAdmissionControl().getRules().get(0);
+        assertThat(rule.getAdmittedCount(), equalTo(2L));
+        assertThat(rule.getRejectedCount(), equalTo(1L));
+        assertThat(rule.getInFlightCount(), equalTo(0));
+        final List<NavigationTrace.Entry> entries = trace.dump();
+        assertThat(entries.get(4).getOutcome(), equalTo(NavigationTrace.Outcome.REJECTED));
+        assertThat(entries.get(5).getOutcome(), equalTo(NavigationTrace.Outcome.RESOLVED));
+    }
+
+    @Test
+    public void testLimitsAreSharedByWrappers() {
+        final AdmissionControl admissionControl = AdmissionControl.builder()
+                .limitCommand(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class,
+                        AdmissionLimit.rate(1, 1, TimeUnit.HOURS))
+                .build();
+        final UriFragmentActionNavigatorWrapper otherWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(),
+                new TestNavigationStateHandler(), null);
+        otherWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.setAdmissionControl(admissionControl);
+        otherWrapper.setAdmissionControl(admissionControl);
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        otherWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/export");
+
+        final AdmissionRule rule = admissionControl.getRules().get(0);
+        assertThat(rule.getAdmittedCount(), equalTo(1L));
+        assertThat(rule.getRejectedCount(), equalTo(1L));
+        assertThat(exports.get(), equalTo(1));
+    }
+
+    @Test
+    public void testMaxInFlight() {
+        final AdmissionControl admissionControl = AdmissionControl.builder()
+                .limitRoute("/reports/{id}/export", AdmissionLimit.maxInFlight(1))
+                .build();
+
+        assertTrue(admissionControl.tryAcquire("/reports/1/export", null));
+        assertFalse(admissionControl.tryAcquire("/reports/2/export", null));
+        assertTrue(admissionControl.tryAcquire("/reports/2/export/all", null));
+        admissionControl.release("/reports/1/export", null);
+        assertTrue(admissionControl.tryAcquire("/reports/2/export", null));
+    }
+
+    @Test
+    public void testRouteTemplateMatching() {
+        final UriFragmentTemplate template = UriFragmentTemplate.compile("/reports/{id}/export");
+
+        assertTrue(template.matches("/reports/42/export"));
+        assertFalse(template.matches("/reports//export"));
+        assertFalse(template.matches("/reports/4/2/export"));
+        assertFalse(template.matches("/reports/42/export/pdf"));
+        assertTrue(UriFragmentTemplate.compile("/search/{term}").matches("/search/x"));
+        assertFalse(UriFragmentTemplate.compile("/search/{term}").matches("/search/"));
+    }
+}
@@ -0,0 +1,229 @@
+package org.vaadin.uriactions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class AsynchronousExecutionTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private ExecutorService executor;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        BlockingActionCommand.started = new CountDownLatch(1);
+        BlockingActionCommand.released = new CountDownLatch(1);
+        executor = Executors.newSingleThreadExecutor();
+        listener = new RecordingListener();
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .map("block").onActionFactory(BlockingActionCommand::new).finishMapper()
+                .map("fail").onActionFactory(FailingActionCommand::new).finishMapper()
+                .map("probe").onActionFactory(MonitorProbingActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.enableAsynchronousExecution(executor);
+        uriFragmentActionNavigatorWrapper.setAsynchronousExecutionListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCommandIsExecutedAsynchronously() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+
+        final String outcome = listener.nextOutcome();
+        assertThat(outcome, equalTo("completed"));
+        assertTrue("Action command was not executed.",
+                ((UriFragmentActionNavigatorWrapperTest.TestActionCommand) listener.lastCommand).isExecuted());
+    }
+
+    @Test
+    public void testFailureIsReported() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/fail");
+
+        assertThat(listener.nextOutcome(), equalTo("failed"));
+        assertTrue(listener.lastFailure instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testRunningCommandIsCancelledByNewerNavigation() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/block");
+        assertTrue(BlockingActionCommand.started.await(5, TimeUnit.SECONDS));
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+
+        assertThat(listener.nextOutcome(), equalTo("cancelled"));
+        assertThat(listener.nextCommandClass(), equalTo(BlockingActionCommand.class));
+        assertThat(listener.nextOutcome(), equalTo("completed"));
+        assertThat(listener.nextCommandClass(), equalTo(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class));
+    }
+
+    @Test
+    public void testNavigationsAreCoalescedWhileCommandIsRunning() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.enableNavigationCoalescing(0, TimeUnit.MILLISECONDS);
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/block");
+        assertTrue(BlockingActionCommand.started.await(5, TimeUnit.SECONDS));
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/fail");
+        BlockingActionCommand.released.countDown();
+
+        assertThat(listener.nextOutcome(), equalTo("skipped"));
+        assertThat(listener.nextSkippedFragment(), equalTo("/test"));
+        assertThat(listener.nextOutcome(), equalTo("completed"));
+        assertThat(listener.nextCommandClass(), equalTo(BlockingActionCommand.class));
+        assertThat(listener.nextOutcome(), equalTo("failed"));
+        assertThat(listener.nextCommandClass(), equalTo(FailingActionCommand.class));
+    }
+
+    @Test
+    public void testNavigationsWithinWindowAreCoalesced() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.enableNavigationCoalescing(1, TimeUnit.SECONDS);
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/fail");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+
+        assertThat(listener.nextOutcome(), equalTo("skipped"));
+        assertThat(listener.nextSkippedFragment(), equalTo("/fail"));
+        assertThat(listener.nextOutcome(), equalTo("completed"));
+        assertThat(listener.nextCommandClass(), equalTo(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class));
+    }
+
+    @Test
+    public void testDirectExecutorDoesNotRunCommandWhileHoldingExecutorMonitor() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.enableAsynchronousExecution(Runnable::run);
+        uriFragmentActionNavigatorWrapper.enableNavigationCoalescing(1, TimeUnit.MILLISECONDS);
+        MonitorProbingActionCommand.probe = () -> uriFragmentActionNavigatorWrapper.disableNavigationCoalescing();
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/probe");
+
+        assertThat(listener.nextOutcome(), equalTo("completed"));
+        final MonitorProbingActionCommand command = (MonitorProbingActionCommand) listener.lastCommand;
+        assertTrue("Executor monitor was held while the action command was running.", command.probeFinished);
+        assertTrue("Action command was run by the coalescing timer thread.",
+                !command.executingThread.getName().equals("uri-action-coalescing-timer"));
+    }
+
+    @Test
+    public void testDirectExecutorRunsCommandInNavigatingThread() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.enableAsynchronousExecution(Runnable::run);
+        MonitorProbingActionCommand.probe = () -> uriFragmentActionNavigatorWrapper.disableNavigationCoalescing();
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/probe");
+
+        assertThat(listener.nextOutcome(), equalTo("completed"));
+        final MonitorProbingActionCommand command = (MonitorProbingActionCommand) listener.lastCommand;
+        assertTrue("Executor monitor was held while the action command was running.", command.probeFinished);
+        assertThat(command.executingThread, equalTo(Thread.currentThread()));
+    }
+
+    private static class RecordingListener implements AsynchronousExecutionListener {
+        private final LinkedBlockingQueue<String> outcomes = new LinkedBlockingQueue<>();
+        private final LinkedBlockingQueue<Class<?>> commandClasses = new LinkedBlockingQueue<>();
+        private final LinkedBlockingQueue<String> skippedFragments = new LinkedBlockingQueue<>();
+        private volatile UriActionCommand lastCommand;
+        private volatile Throwable lastFailure;
+
+        @Override
+        public void executionCompleted(final UriActionCommand command) {
+            lastCommand = command;
+            commandClasses.add(command.getClass());
+            outcomes.add("completed");
+        }
+
+        @Override
+        public void executionFailed(final UriActionCommand command, final Throwable failure) {
+            lastCommand = command;
+            lastFailure = failure;
+            commandClasses.add(command.getClass());
+            outcomes.add("failed");
+        }
+
+        @Override
+        public void executionCancelled(final UriActionCommand command) {
+            lastCommand = command;
+            commandClasses.add(command.getClass());
+            outcomes.add("cancelled");
+        }
+
+        @Override
+        public void executionSkipped(final String uriFragment, final UriActionCommand command) {
+            skippedFragments.add(uriFragment);
+            outcomes.add("skipped");
+        }
+
+        String nextOutcome() throws InterruptedException {
+            return outcomes.poll(5, TimeUnit.SECONDS);
+        }
+
+        Class<?> nextCommandClass() throws InterruptedException {
+            return commandClasses.poll(5, TimeUnit.SECONDS);
+        }
+
+        String nextSkippedFragment() throws InterruptedException {
+            return skippedFragments.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class BlockingActionCommand implements UriActionCommand {
+        private static volatile CountDownLatch started;
+        private static volatile CountDownLatch released;
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Action command which calls the configured probe from a different thread and waits for it to finish. If the
+     * probe needs the executor monitor and this monitor is held while the command is running, the probe does not
+     * finish.
+     */
+    public static class MonitorProbingActionCommand implements UriActionCommand {
+        private static volatile Runnable probe;
+        private volatile Thread executingThread;
+        private volatile boolean probeFinished;
+
+        @Override
+        public void run() {
+            executingThread = Thread.currentThread();
+            final Thread probeThread = new Thread(probe);
+            probeThread.setDaemon(true);
+            probeThread.start();
+            try {
+                probeThread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            probeFinished = !probeThread.isAlive();
+        }
+    }
+
+    public static class FailingActionCommand implements UriActionCommand {
+        @Override
+        public void run() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
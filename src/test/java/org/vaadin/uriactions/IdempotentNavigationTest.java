@@ -0,0 +1,116 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.ViewChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class IdempotentNavigationTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private List<UriActionCommand> navigatedCommands;
+
+    @Before
+    public void setUp() {
+        DashboardActionCommand.executions.set(0);
+        navigatedCommands = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("dashboard").onActionFactory(DashboardActionCommand::new).finishMapper()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                navigatedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+    }
+
+    @Test
+    public void testRepeatedNavigationIsShortCircuited() {
+        navigateTo("/dashboard");
+        navigateTo("/dashboard");
+        navigateTo("/dashboard");
+
+        assertThat(DashboardActionCommand.executions.get(), equalTo(1));
+        assertThat(navigatedCommands.size(), equalTo(3));
+        assertSame(navigatedCommands.get(0), navigatedCommands.get(2));
+    }
+
+    @Test
+    public void testShortCircuitedNavigationIsRecorded() {
+        final NavigationMetrics metrics = new NavigationMetrics();
+        uriFragmentActionNavigatorWrapper.setNavigationMetrics(metrics);
+        final NavigationTrace trace = uriFragmentActionNavigatorWrapper.enableNavigationTrace(8);
+
+        navigateTo("/dashboard");
+        navigateTo("/dashboard");
+        navigateTo("/dashboard");
+
+        assertThat(metrics.getResolvedNavigationCount(), equalTo(1L));
+        assertThat(metrics.getShortCircuitedNavigationCount(), equalTo(2L));
+        final List<NavigationTrace.Entry> entries = trace.dump();
+        assertThat(entries.size(), equalTo(3));
+        assertThat(entries.get(0).getOutcome(), equalTo(NavigationTrace.Outcome.RESOLVED));
+        assertThat(entries.get(1).getOutcome(), equalTo(NavigationTrace.Outcome.SHORT_CIRCUITED));
+        assertThat(entries.get(2).getOutcome(), equalTo(NavigationTrace.Outcome.SHORT_CIRCUITED));
+        assertSame(DashboardActionCommand.class, entries.get(2).getCommandClass());
+    }
+
+    @Test
+    public void testNavigationAfterOtherViewIsExecuted() {
+        navigateTo("/dashboard");
+        navigateTo("/test");
+        navigateTo("/dashboard");
+
+        assertThat(DashboardActionCommand.executions.get(), equalTo(2));
+    }
+
+    @Test
+    public void testNavigationWithChangedRoutingContextIsExecuted() {
+        navigateTo("/dashboard");
+        uriFragmentActionNavigatorWrapper.setRoutingContext(new Object());
+        navigateTo("/dashboard");
+
+        assertThat(DashboardActionCommand.executions.get(), equalTo(2));
+    }
+
+    @Test
+    public void testNavigationAfterTimeToLiveIsExecuted() {
+        uriFragmentActionNavigatorWrapper.setIdempotentNavigationTimeToLive(0, TimeUnit.SECONDS);
+        navigateTo("/dashboard");
+        navigateTo("/dashboard");
+
+        assertThat(DashboardActionCommand.executions.get(), equalTo(2));
+    }
+
+    private void navigateTo(final String navigationState) {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo(navigationState);
+    }
+
+    public static class DashboardActionCommand implements IdempotentUriActionCommand {
+        private static final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public void run() {
+            executions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Headless load test for {@link UriFragmentActionNavigatorWrapper}s which runs without a servlet container or network.
+ * The harness creates a number of {@link TestUI}s, each with its own navigator wrapper and {@link
+ * TestNavigationStateHandler}, which all share the same {@link CompiledUriActionMapperTree}. Each UI is attached to a
+ * {@link VaadinSession} of its own, which is created without a {@link com.vaadin.server.VaadinService}. Each UI is
+ * driven by its own task which navigates to the URI fragments provided by a {@link FragmentSource} one after another,
+ * just like a single user does. As in a request handled by Vaadin, the lock on the UI's session is held during each
+ * navigation, so that asynchronously executed action commands contend for it just like in a servlet container. The tasks are run either by a fixed number of platform threads or, if supported by the Java
+ * runtime, by one virtual thread per UI.
+ * <p>
+ * The harness measures the latency of each {@code navigateTo()} call including the acquisition of the session lock,
+ * which includes the interpretation of the URI
+ * fragment and, unless asynchronous execution is enabled, the execution of the action command. The resulting {@link
+ * LoadTestReport} contains the latency percentiles, the throughput, and the garbage collections which occurred during
+ * the load test. Shared objects such as a {@link FragmentResolutionCache}, {@link NavigationMetrics}, or an {@link
+ * AdmissionControl} can be set on the wrappers with {@link #setWrapperConfigurer(Consumer)} to measure their
+ * contention.
+ */
+public class LoadTestHarness {
+    private final CompiledUriActionMapperTree mapperTree;
+    private final FragmentSource fragmentSource;
+    private int uiCount = 100;
+    private int navigationsPerUi = 1000;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+    private Consumer<UriFragmentActionNavigatorWrapper> wrapperConfigurer = wrapper -> {
+    };
+
+    public LoadTestHarness(final CompiledUriActionMapperTree mapperTree, final FragmentSource fragmentSource) {
+        if (mapperTree == null) {
+            throw new IllegalArgumentException("action mapper tree must not be null");
+        }
+        if (fragmentSource == null) {
+            throw new IllegalArgumentException("fragment source must not be null");
+        }
+        this.mapperTree = mapperTree;
+        this.fragmentSource = fragmentSource;
+    }
+
+    public LoadTestHarness setUiCount(final int uiCount) {
+        this.uiCount = uiCount;
+        return this;
+    }
+
+    public LoadTestHarness setNavigationsPerUi(final int navigationsPerUi) {
+        this.navigationsPerUi = navigationsPerUi;
+        return this;
+    }
+
+    /**
+     * Runs the UIs with the given number of platform threads.
+     */
+    public LoadTestHarness usePlatformThreads(final int threadCount) {
+        this.threadCount = threadCount;
+        virtualThreads = false;
+        return this;
+    }
+
+    /**
+     * Runs each UI in its own virtual thread. If virtual threads are not supported by the Java runtime, the UIs are run
+     * with the configured number of platform threads instead.
+     */
+    public LoadTestHarness useVirtualThreads() {
+        virtualThreads = true;
+        return this;
+    }
+
+    /**
+     * Sets a callback which configures each navigator wrapper after the action mapper tree has been set.
+     */
+    public LoadTestHarness setWrapperConfigurer(final Consumer<UriFragmentActionNavigatorWrapper> wrapperConfigurer) {
+        this.wrapperConfigurer = wrapperConfigurer;
+        return this;
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        final List<UriFragmentActionNavigatorWrapper> wrappers = new ArrayList<>(uiCount);
+        for (int i = 0; i < uiCount; i++) {
+            final UI ui = new TestUI();
+            ui.setSession(new VaadinSession(null));
+            final UriFragmentActionNavigatorWrapper wrapper = new UriFragmentActionNavigatorWrapper(ui,
+                    new TestNavigationStateHandler(), view -> {
+            });
+            wrapper.setUriActionMapperTree(mapperTree);
+            wrapperConfigurer.accept(wrapper);
+            wrappers.add(wrapper);
+        }
+
+        final ExecutorService executor = createExecutor();
+        final String threadDescription = executor instanceof ThreadPoolExecutor ? threadCount + " platform threads"
+                : "virtual threads";
+        // each task records into its own histogram, so that the measured threads do not contend on shared counters
+        final LatencyHistogram[] latencies = new LatencyHistogram[uiCount];
+        final LongAdder failures = new LongAdder();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(uiCount);
+        for (int i = 0; i < uiCount; i++) {
+            final int uiIndex = i;
+            final UriFragmentActionNavigatorWrapper wrapper = wrappers.get(i);
+            final LatencyHistogram latency = new LatencyHistogram();
+            latencies[i] = latency;
+            executor.execute(() -> {
+                try {
+                    startSignal.await();
+                    for (int navigation = 0; navigation < navigationsPerUi; navigation++) {
+                        final String uriFragment = fragmentSource.getFragment(uiIndex, navigation);
+                        final long start = System.nanoTime();
+                        try {
+                            AsynchronousActionCommandExecutor.runWithSessionLock(wrapper.getNavigator().getUI(),
+                                    () -> wrapper.getNavigator().navigateTo(uriFragment));
+                        } catch (RuntimeException e) {
+                            failures.increment();
+                        }
+                        latency.record(System.nanoTime() - start);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        final long gcCountBefore = getGarbageCollectionCount();
+        final long gcMillisBefore = getGarbageCollectionMillis();
+        final long start = System.nanoTime();
+        startSignal.countDown();
+        finished.await();
+        final long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        for (final LatencyHistogram uiLatency : latencies) {
+            latency.add(uiLatency);
+        }
+        return new LoadTestReport(uiCount, threadDescription, latency.snapshot(), failures.sum(), elapsedNanos,
+                getGarbageCollectionCount() - gcCountBefore, getGarbageCollectionMillis() - gcMillisBefore);
+    }
+
+    private ExecutorService createExecutor() {
+        if (virtualThreads) {
+            try {
+                final Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factoryMethod.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // virtual threads are not available in this Java runtime
+            }
+        }
+        return Executors.newFixedThreadPool(threadCount);
+    }
+
+    private static long getGarbageCollectionCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getGarbageCollectionMillis() {
+        long millis = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Source of the URI fragments navigated to by the UIs of a load test. Implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface FragmentSource {
+        String getFragment(int uiIndex, int navigationIndex);
+
+        /**
+         * Replays the given recorded URI fragments. Each UI starts at a different position of the recording, so that
+         * the UIs do not navigate in lockstep.
+         */
+        static FragmentSource recorded(final List<String> uriFragments) {
+            if (uriFragments.isEmpty()) {
+                throw new IllegalArgumentException("recorded URI fragments must not be empty");
+            }
+            final String[] fragments = uriFragments.toArray(new String[0]);
+            return (uiIndex, navigationIndex) -> fragments[(int) (((long) uiIndex * 31 + navigationIndex) % fragments.length)];
+        }
+
+        /**
+         * Replays the URI fragments read from the given fragment log with one URI fragment per line, such as the one
+         * written by {@link NavigationTrace#writeFragmentLog(Appendable)}. Empty lines and lines starting with
+         * {@code #} are ignored.
+         */
+        static FragmentSource recorded(final Reader fragmentLog) throws IOException {
+            final List<String> uriFragments = new ArrayList<>();
+            final BufferedReader lines = new BufferedReader(fragmentLog);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                final String uriFragment = line.trim();
+                if (!uriFragment.isEmpty() && !uriFragment.startsWith("#")) {
+                    uriFragments.add(uriFragment);
+                }
+            }
+            return recorded(uriFragments);
+        }
+
+        /**
+         * Generates URI fragments from the given templates. Each navigation picks a random template and fills its
+         * parameters with random numbers between 0 and {@code parameterRange - 1}. The generated sequence only depends
+         * on the seed, the UI index, and the navigation index.
+         */
+        static FragmentSource synthetic(final long seed, final int parameterRange, final String... templates) {
+            final UriFragmentTemplate[] compiledTemplates = new UriFragmentTemplate[templates.length];
+            for (int i = 0; i < templates.length; i++) {
+                compiledTemplates[i] = UriFragmentTemplate.compile(templates[i]);
+            }
+            return (uiIndex, navigationIndex) -> {
+                final SplittableRandom random = new SplittableRandom(seed ^ ((long) uiIndex << 32) ^ navigationIndex);
+                final UriFragmentTemplate template = compiledTemplates[random.nextInt(compiledTemplates.length)];
+                final Object[] parameterValues = new Object[template.getParameterNames().size()];
+                for (int i = 0; i < parameterValues.length; i++) {
+                    parameterValues[i] = random.nextInt(parameterRange);
+                }
+                return template.assemble(parameterValues);
+            };
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.ViewChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a small load test with each thread model. Larger load tests can be run by setting the system properties
+ * {@code loadtest.uis} and {@code loadtest.navigations}, e. g. {@code mvn test -Dtest=LoadTestHarnessTest
+ * -Dloadtest.uis=5000 -Dloadtest.navigations=2000}.
+ */
+public class LoadTestHarnessTest {
+    private final static Logger LOG = LoggerFactory.getLogger(LoadTestHarnessTest.class);
+
+    private static final int UI_COUNT = Integer.getInteger("loadtest.uis", 20);
+    private static final int NAVIGATIONS_PER_UI = Integer.getInteger("loadtest.navigations", 200);
+
+    private CompiledUriActionMapperTree mapperTree;
+
+    @Before
+    public void setUp() {
+        mapperTree = CompiledUriActionMapperTree.compile(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .mapSubtree("admin")
+                .onSubtree()
+                .map("users").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .map("user").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new)
+                .withSingleValuedParameter("id").forType(Long.class).noDefault()
+                .finishMapper()
+                .finishMapper()
+                .build());
+    }
+
+    @Test
+    public void testSyntheticFragmentsOnPlatformThreads() throws InterruptedException {
+        final NavigationMetrics metrics = new NavigationMetrics();
+        final LongAdder unlockedNavigations = new LongAdder();
+        final LoadTestReport report = new LoadTestHarness(mapperTree,
+                LoadTestHarness.FragmentSource.synthetic(42, 1000, "/home", "/admin/users"))
+                .setUiCount(UI_COUNT)
+                .setNavigationsPerUi(NAVIGATIONS_PER_UI)
+                .usePlatformThreads(4)
+                .setWrapperConfigurer(wrapper -> {
+                    wrapper.setNavigationMetrics(metrics);
+                    final ReentrantLock sessionLock =
+                            (ReentrantLock) wrapper.getNavigator().getUI().getSession().getLockInstance();
+                    wrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+                        @Override
+                        public boolean beforeViewChange(final ViewChangeEvent event) {
+                            if (!sessionLock.isHeldByCurrentThread()) {
+                                unlockedNavigations.increment();
+                            }
+                            return true;
+                        }
+
+                        @Override
+                        public void afterViewChange(final ViewChangeEvent event) {
+                        }
+                    });
+                })
+                .run();
+
+        assertReport(report);
+        assertThat(unlockedNavigations.sum(), equalTo(0L));
+    }
+
+    @Test
+    public void testParameterizedFragmentsOnPlatformThreads() throws InterruptedException {
+        final FragmentResolutionCache fragmentResolutionCache = new FragmentResolutionCache(256);
+        final LoadTestReport report = new LoadTestHarness(mapperTree,
+                LoadTestHarness.FragmentSource.synthetic(42, 1000, "/admin/user/id/{id}", "/home"))
+                .setUiCount(UI_COUNT)
+                .setNavigationsPerUi(NAVIGATIONS_PER_UI)
+                .usePlatformThreads(4)
+                .setWrapperConfigurer(wrapper -> wrapper.setFragmentResolutionCache(fragmentResolutionCache))
+                .run();
+
+        assertReport(report);
+        assertTrue(fragmentResolutionCache.getHitCount() > 0);
+    }
+
+    @Test
+    public void testRecordedFragmentsOnVirtualThreads() throws InterruptedException, IOException {
+        final UriFragmentActionNavigatorWrapper recordingWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(),
+                new TestNavigationStateHandler(), null);
+        recordingWrapper.setUriActionMapperTree(mapperTree);
+        final NavigationTrace trace = recordingWrapper.enableNavigationTrace(16);
+        recordingWrapper.getNavigator().navigateTo("/home");
+        recordingWrapper.getNavigator().navigateTo("/admin/users");
+        final StringBuilder fragmentLog = new StringBuilder();
+        trace.writeFragmentLog(fragmentLog);
+
+        final LoadTestReport report = new LoadTestHarness(mapperTree,
+                LoadTestHarness.FragmentSource.recorded(new StringReader(fragmentLog.toString())))
+                .setUiCount(UI_COUNT)
+                .setNavigationsPerUi(NAVIGATIONS_PER_UI)
+                .useVirtualThreads()
+                .run();
+
+        assertReport(report);
+    }
+
+    private static void assertReport(final LoadTestReport report) {
+        LOG.info("{}", report);
+        assertThat(report.getNavigationCount(), equalTo((long) UI_COUNT * NAVIGATIONS_PER_UI));
+        assertThat(report.getFailedNavigations(), equalTo(0L));
+        final LatencySnapshot latency = report.getNavigationLatency();
+        assertTrue(latency.getP50Nanos() <= latency.getP99Nanos());
+        assertTrue(latency.getP99Nanos() <= latency.getP999Nanos());
+        assertTrue(report.getThroughput() > 0);
+    }
+}
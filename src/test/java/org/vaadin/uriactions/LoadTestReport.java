@@ -0,0 +1,73 @@
+package org.vaadin.uriactions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link LoadTestHarness} run.
+ */
+public class LoadTestReport {
+    private final int uiCount;
+    private final String threads;
+    private final LatencySnapshot navigationLatency;
+    private final long failedNavigations;
+    private final long elapsedNanos;
+    private final long garbageCollections;
+    private final long garbageCollectionMillis;
+
+    LoadTestReport(final int uiCount, final String threads, final LatencySnapshot navigationLatency,
+                   final long failedNavigations, final long elapsedNanos, final long garbageCollections,
+                   final long garbageCollectionMillis) {
+        this.uiCount = uiCount;
+        this.threads = threads;
+        this.navigationLatency = navigationLatency;
+        this.failedNavigations = failedNavigations;
+        this.elapsedNanos = elapsedNanos;
+        this.garbageCollections = garbageCollections;
+        this.garbageCollectionMillis = garbageCollectionMillis;
+    }
+
+    public int getUiCount() {
+        return uiCount;
+    }
+
+    public LatencySnapshot getNavigationLatency() {
+        return navigationLatency;
+    }
+
+    public long getNavigationCount() {
+        return navigationLatency.getCount();
+    }
+
+    public long getFailedNavigations() {
+        return failedNavigations;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of navigations per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getNavigationCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public long getGarbageCollections() {
+        return garbageCollections;
+    }
+
+    public long getGarbageCollectionMillis() {
+        return garbageCollectionMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d UIs on %s: %d navigations (%d failed) in %d ms, %.0f navigations/s, "
+                        + "p50=%dns p99=%dns p999=%dns max=%dns, %d GCs (%d ms)",
+                uiCount, threads, getNavigationCount(), failedNavigations, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                getThroughput(), navigationLatency.getP50Nanos(), navigationLatency.getP99Nanos(),
+                navigationLatency.getP999Nanos(), navigationLatency.getMaxNanos(), garbageCollections,
+                garbageCollectionMillis);
+    }
+}
@@ -0,0 +1,74 @@
+package org.vaadin.uriactions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MapperTreeIndexTest {
+    private MapperTreeIndex index;
+
+    @Before
+    public void setUp() {
+        final UriActionMapperTree uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .mapSubtree("admin")
+                .onSubtree()
+                .map("users").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .finishMapper()
+                .build();
+        index = MapperTreeIndex.build(uriActionMapperTree, 2);
+    }
+
+    @Test
+    public void testFragmentsWithKnownFirstSegmentMayResolve() {
+        assertTrue(index.mayResolve("home"));
+        assertTrue(index.mayResolve("/home"));
+        assertTrue(index.mayResolve("/admin/users"));
+        assertTrue(index.mayResolve("/admin/unknown"));
+    }
+
+    @Test
+    public void testFragmentsWithUnknownFirstSegmentCannotResolve() {
+        assertFalse(index.mayResolve("separate_view"));
+        assertFalse(index.mayResolve("/homepage"));
+        assertFalse(index.mayResolve("/hom/users"));
+    }
+
+    @Test
+    public void testUnresolvableFragmentsAreRemembered() {
+        index.rememberUnresolvable("/admin/unknown");
+        assertFalse(index.mayResolve("/admin/unknown"));
+        assertTrue(index.mayResolve("/admin/users"));
+    }
+
+    @Test
+    public void testNegativeCacheIsBounded() {
+        index.rememberUnresolvable("/admin/first");
+        index.rememberUnresolvable("/admin/second");
+        index.rememberUnresolvable("/admin/third");
+        assertTrue(index.mayResolve("/admin/first"));
+        assertFalse(index.mayResolve("/admin/second"));
+        assertFalse(index.mayResolve("/admin/third"));
+    }
+
+    @Test
+    public void testRememberingFragmentAgainDoesNotEvictOthers() {
+        index.rememberUnresolvable("/admin/first");
+        index.rememberUnresolvable("/admin/second");
+        index.rememberUnresolvable("/admin/second");
+        assertFalse(index.mayResolve("/admin/first"));
+        assertFalse(index.mayResolve("/admin/second"));
+    }
+
+    @Test
+    public void testDisabledNegativeCache() {
+        index = MapperTreeIndex.build(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build(), 0);
+        index.rememberUnresolvable("/home/unknown");
+        assertTrue(index.mayResolve("/home/unknown"));
+    }
+}
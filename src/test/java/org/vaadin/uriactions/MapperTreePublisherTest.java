@@ -0,0 +1,136 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MapperTreePublisherTest {
+    private MapperTreePublisher publisher;
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private List<View> enteredViews;
+
+    @Before
+    public void setUp() {
+        enteredViews = new ArrayList<>();
+        publisher = new MapperTreePublisher(CompiledUriActionMapperTree.compile(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .map("retired").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build()));
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(),
+                view -> {
+                });
+        uriFragmentActionNavigatorWrapper.setMapperTreePublisher(publisher);
+        uriFragmentActionNavigatorWrapper.getNavigator().addView("separate_view", (View) event -> {
+        });
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                enteredViews.add(event.getNewView());
+            }
+        });
+    }
+
+    @Test
+    public void testPublishedTreeIsUsedByWrappers() {
+        publisher.publish(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .map("added").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+
+        assertThat(publisher.getVersion(), equalTo(2L));
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/added");
+        assertTrue(enteredViews.get(0) instanceof ActionExecutionView);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRetiredRouteIsNotResolved() {
+        publisher.publish(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .build());
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/retired");
+    }
+
+    @Test
+    public void testNavigationInProgressFinishesWithItsTree() {
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                publisher.publish(UriActionMapperTree.create().buildMapperTree()
+                        .map("home").onActionFactory(OtherActionCommand::new).finishMapper()
+                        .build());
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/home");
+
+        final UriActionCommand command = ((ActionExecutionView) enteredViews.get(0)).getUriActionCommand();
+        assertTrue(command instanceof UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand);
+        assertTrue(((UriFragmentActionNavigatorWrapperTest.TestActionCommand) command).isExecuted());
+        assertThat(publisher.getVersion(), equalTo(2L));
+    }
+
+    @Test
+    public void testCachesAndTemplatesAreCarriedOver() {
+        final FragmentResolutionCache cache = new FragmentResolutionCache(16);
+        publisher.addFragmentResolutionCache(cache);
+        uriFragmentActionNavigatorWrapper.setFragmentResolutionCache(cache);
+        final UriFragmentTemplate template = uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/home/{tab}");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/home");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("separate_view");
+
+        publisher.publish(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/home");
+
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.getMissCount(), equalTo(1L));
+        assertThat(cache.getHitCount(), equalTo(1L));
+        assertSame(template, uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/home/{tab}"));
+    }
+
+    @Test
+    public void testCompareAndPublish() {
+        final CompiledUriActionMapperTree initial = publisher.getCurrent();
+        final CompiledUriActionMapperTree first = initial.recompile(UriActionMapperTree.create().buildMapperTree().build());
+        final CompiledUriActionMapperTree second = initial.recompile(UriActionMapperTree.create().buildMapperTree().build());
+        final List<CompiledUriActionMapperTree> published = new ArrayList<>();
+        publisher.addPublicationListener((previous, current) -> published.add(current));
+
+        assertTrue(publisher.compareAndPublish(initial, first));
+        assertFalse(publisher.compareAndPublish(initial, second));
+        assertSame(first, publisher.getCurrent());
+        assertThat(published.size(), equalTo(1));
+    }
+
+    public static class OtherActionCommand implements UriActionCommand {
+        @Override
+        public void run() {
+        }
+    }
+}
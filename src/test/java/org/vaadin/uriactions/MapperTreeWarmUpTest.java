@@ -0,0 +1,71 @@
+package org.vaadin.uriactions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class MapperTreeWarmUpTest {
+    private MapperTreeWarmUp warmUp;
+
+    @Before
+    public void setUp() {
+        warmUp = new MapperTreeWarmUp(CompiledUriActionMapperTree.compile(UriActionMapperTree.create().buildMapperTree()
+                .map("home").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .mapSubtree("admin")
+                .onSubtree()
+                .map("users").onActionFactory(UriFragmentActionNavigatorWrapperTest.CopyableTestActionCommand::new).finishMapper()
+                .finishMapper()
+                .build()));
+    }
+
+    @Test
+    public void testWarmUpReportsTimings() throws IOException {
+        warmUp.addFragments(new StringReader("# entry points\n/home\n\n/admin/users\n"));
+
+        final WarmUpReport report = warmUp.run();
+
+        assertThat(warmUp.getFragments(), equalTo(Arrays.asList("/home", "/admin/users")));
+        assertThat(report.getFragmentCount(), equalTo(2));
+        assertThat(report.getIterations(), equalTo(MapperTreeWarmUp.DEFAULT_MINIMUM_INTERPRETATIONS / 2));
+        assertThat(report.getColdInterpretation().getCount(), equalTo(2L));
+        assertThat(report.getWarmInterpretation().getCount(), equalTo((long) MapperTreeWarmUp.DEFAULT_MINIMUM_INTERPRETATIONS));
+    }
+
+    @Test
+    public void testWarmUpPopulatesCache() {
+        final FragmentResolutionCache cache = new FragmentResolutionCache(10);
+        warmUp.setFragmentResolutionCache(cache);
+        warmUp.setIterations(0);
+        warmUp.addFragments(Arrays.asList("/home", "/admin/users"));
+
+        warmUp.run();
+
+        assertThat(cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void testWarmIterationsResolveThroughCache() {
+        final FragmentResolutionCache cache = new FragmentResolutionCache(10);
+        warmUp.setFragmentResolutionCache(cache);
+        warmUp.setIterations(3);
+        warmUp.addFragments(Arrays.asList("/home", "/admin/users"));
+
+        warmUp.run();
+
+        assertThat(cache.getMissCount(), equalTo(2L));
+        assertThat(cache.getHitCount(), equalTo(6L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnresolvableFragmentFailsWarmUp() {
+        warmUp.addFragments(Arrays.asList("/home", "/admin/unknown", "/admin/users"));
+        warmUp.run();
+    }
+}
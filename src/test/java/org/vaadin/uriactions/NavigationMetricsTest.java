@@ -0,0 +1,110 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationMetricsTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private NavigationMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new NavigationMetrics();
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(),
+                view -> {
+                });
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.setNavigationMetrics(metrics);
+        uriFragmentActionNavigatorWrapper.getNavigator().addView("separate_view", (View) event -> {
+        });
+    }
+
+    @Test
+    public void testMetricsAreRecordedPerRoute() {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("separate_view");
+
+        assertThat(metrics.getResolvedNavigationCount(), equalTo(2L));
+        assertThat(metrics.getUnresolvedNavigationCount(), equalTo(1L));
+        assertThat(metrics.getFallbackNavigationCount(), equalTo(1L));
+        assertThat(metrics.getRouteStatistics().size(), equalTo(1));
+
+        final RouteStatistics statistics = metrics.getRouteStatistics(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class);
+        assertThat(statistics.getRoute(), equalTo(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class.getName()));
+        assertThat(statistics.getInterpretation().getCount(), equalTo(2L));
+        assertThat(statistics.getExecution().getCount(), equalTo(2L));
+        assertThat(statistics.getExecutionFailureCount(), equalTo(0L));
+        assertTrue(statistics.getExecution().getMaxNanos() >= statistics.getExecution().getP50Nanos());
+    }
+
+    @Test
+    public void testListenerIsNotified() {
+        final List<String> events = new ArrayList<>();
+        metrics.addListener(new NavigationMetricsListener() {
+            @Override
+            public void fragmentInterpreted(final String uriFragment, final Class<? extends UriActionCommand> commandClass,
+                                            final long durationNanos) {
+                events.add("interpreted " + uriFragment + " " + (commandClass == null ? null : commandClass.getSimpleName()));
+            }
+
+            @Override
+            public void commandExecuted(final UriActionCommand command, final long durationNanos, final Throwable failure) {
+                events.add("executed " + command.getClass().getSimpleName());
+            }
+
+            @Override
+            public void fallbackViewShown(final View view) {
+                events.add("fallback");
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("separate_view");
+
+        assertThat(events.size(), equalTo(4));
+        assertThat(events.get(0), equalTo("interpreted /test TestActionCommand"));
+        assertThat(events.get(1), equalTo("executed TestActionCommand"));
+        assertThat(events.get(2), equalTo("interpreted separate_view null"));
+        assertThat(events.get(3), equalTo("fallback"));
+    }
+
+    @Test
+    public void testMetricsAreExposedViaJmx() throws Exception {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+
+        final ObjectName name = metrics.registerMBean("org.vaadin.uriactions:type=NavigationMetrics,name=test");
+        try {
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ResolvedNavigationCount"), equalTo(1L));
+            final CompositeData[] routes = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(name, "RouteStatistics");
+            assertThat(routes.length, equalTo(1));
+            assertThat(((CompositeData) routes[0].get("execution")).get("count"), equalTo(1L));
+        } finally {
+            metrics.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testUnknownRouteHasNoStatistics() {
+        assertNull(metrics.getRouteStatistics(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class));
+    }
+}
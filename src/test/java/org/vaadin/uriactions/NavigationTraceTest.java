@@ -0,0 +1,125 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationTraceTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private NavigationTrace trace;
+
+    @Before
+    public void setUp() {
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(),
+                view -> {
+                });
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        uriFragmentActionNavigatorWrapper.getNavigator().addView("separate_view", (View) event -> {
+        });
+        trace = uriFragmentActionNavigatorWrapper.enableNavigationTrace(4);
+    }
+
+    @Test
+    public void testNavigationsAreRecorded() throws IOException {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("separate_view");
+
+        final List<NavigationTrace.Entry> entries = trace.dump();
+        assertThat(entries.size(), equalTo(2));
+        assertThat(entries.get(0).getUriFragment(), equalTo("/test"));
+        assertThat(entries.get(0).getOutcome(), equalTo(NavigationTrace.Outcome.RESOLVED));
+        assertThat(entries.get(0).getCommandClass(), equalTo(UriFragmentActionNavigatorWrapperTest.TestActionCommand.class));
+        assertTrue(entries.get(0).getExecutionNanos() >= 0);
+        assertThat(entries.get(1).getOutcome(), equalTo(NavigationTrace.Outcome.FALLBACK));
+        assertNull(entries.get(1).getCommandClass());
+        assertThat(entries.get(1).getExecutionNanos(), equalTo(-1L));
+
+        final StringBuilder fragmentLog = new StringBuilder();
+        trace.writeFragmentLog(fragmentLog);
+        assertThat(fragmentLog.toString(), equalTo("/test\nseparate_view\n"));
+    }
+
+    @Test
+    public void testOldestNavigationsAreOverwritten() {
+        for (int i = 0; i < 6; i++) {
+            uriFragmentActionNavigatorWrapper.getNavigator().navigateTo(i % 2 == 0 ? "/test" : "separate_view");
+        }
+
+        final List<NavigationTrace.Entry> entries = trace.dump();
+        assertThat(trace.getRecordedCount(), equalTo(6L));
+        assertThat(entries.size(), equalTo(4));
+        assertThat(entries.get(0).getUriFragment(), equalTo("/test"));
+        assertThat(entries.get(3).getUriFragment(), equalTo("separate_view"));
+    }
+
+    @Test
+    public void testConcurrentRecordingKeepsEntriesConsistent() throws InterruptedException {
+        final NavigationTrace concurrentTrace = new NavigationTrace(64);
+        final UriActionCommand command = new UriFragmentActionNavigatorWrapperTest.TestActionCommand();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final String uriFragment = "/thread" + t;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    concurrentTrace.recordInterpretation(uriFragment, command, uriFragment.length(),
+                            NavigationTrace.Outcome.RESOLVED);
+                    concurrentTrace.recordExecution(uriFragment, uriFragment.length(), null);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(concurrentTrace.getRecordedCount(), equalTo(40000L));
+        for (final NavigationTrace.Entry entry : concurrentTrace.dump()) {
+            assertThat(entry.getInterpretationNanos(), equalTo((long) entry.getUriFragment().length()));
+        }
+    }
+
+    @Test
+    public void testConcurrentDumpOnlySeesCompleteEntries() throws InterruptedException {
+        final NavigationTrace concurrentTrace = new NavigationTrace(16);
+        final String[] uriFragments = new String[1000];
+        for (int i = 0; i < uriFragments.length; i++) {
+            uriFragments[i] = "/fragment" + i;
+        }
+        final Thread writer = new Thread(() -> {
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < uriFragments.length; i++) {
+                    concurrentTrace.recordInterpretation(uriFragments[i], null, i, NavigationTrace.Outcome.FALLBACK);
+                }
+            }
+        });
+        writer.start();
+
+        long checkedEntries = 0;
+        while (writer.isAlive()) {
+            for (final NavigationTrace.Entry entry : concurrentTrace.dump()) {
+                assertThat(entry.getUriFragment(), equalTo(uriFragments[(int) entry.getInterpretationNanos()]));
+                assertThat(entry.getOutcome(), equalTo(NavigationTrace.Outcome.FALLBACK));
+                checkedEntries++;
+            }
+        }
+        writer.join();
+
+        assertTrue("No entries have been dumped while recording.", checkedEntries > 0);
+    }
+}
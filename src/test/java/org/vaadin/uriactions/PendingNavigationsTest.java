@@ -0,0 +1,80 @@
+package org.vaadin.uriactions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PendingNavigationsTest {
+    private PendingNavigations pendingNavigations;
+
+    @Before
+    public void setUp() {
+        pendingNavigations = new PendingNavigations();
+    }
+
+    @Test
+    public void testSinglePendingNavigation() {
+        final ActionExecutionView view = createView();
+        pendingNavigations.put("/a", view);
+
+        assertSame(view, pendingNavigations.find("/a"));
+        assertSame(view, pendingNavigations.take("/a"));
+        assertNull(pendingNavigations.take("/a"));
+    }
+
+    @Test
+    public void testInterleavedNavigations() {
+        final ActionExecutionView viewA = createView();
+        final ActionExecutionView viewB = createView();
+        pendingNavigations.put("/a", viewA);
+        pendingNavigations.put("/b", viewB);
+
+        assertSame(viewB, pendingNavigations.take("/b"));
+        assertSame(viewA, pendingNavigations.take("/a"));
+        assertNull(pendingNavigations.find("/a"));
+        assertNull(pendingNavigations.find("/b"));
+    }
+
+    @Test
+    public void testNestedNavigationToSameState() {
+        final ActionExecutionView outerView = createView();
+        final ActionExecutionView innerView = createView();
+        pendingNavigations.put("/a", outerView);
+        pendingNavigations.put("/a", innerView);
+
+        assertSame(innerView, pendingNavigations.take("/a"));
+        assertSame(outerView, pendingNavigations.take("/a"));
+    }
+
+    @Test
+    public void testOldestOverflowEntryIsDiscarded() {
+        pendingNavigations.put("/first", createView());
+        for (int i = 0; i <= PendingNavigations.MAX_OVERFLOW_SIZE; i++) {
+            pendingNavigations.put("/overflow" + i, createView());
+        }
+
+        assertNull(pendingNavigations.find("/overflow0"));
+        assertSame(pendingNavigations.find("/overflow1"), pendingNavigations.take("/overflow1"));
+        assertSame(pendingNavigations.find("/first"), pendingNavigations.take("/first"));
+    }
+
+    @Test
+    public void testClear() {
+        pendingNavigations.put("/a", createView());
+        pendingNavigations.put("/b", createView());
+        pendingNavigations.clear();
+
+        assertNull(pendingNavigations.find("/a"));
+        assertNull(pendingNavigations.find("/b"));
+    }
+
+    private static ActionExecutionView createView() {
+        final ActionExecutionView view = new ActionExecutionView();
+        view.bind(UriFragment.intern("/view"), () -> {
+        }, (uriFragment, command, ui, observer) -> command.run(), (uriFragment, command, durationNanos, failure) -> {
+        });
+        return view;
+    }
+}
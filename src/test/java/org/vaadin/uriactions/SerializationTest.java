@@ -0,0 +1,190 @@
+package org.vaadin.uriactions;
+
+import com.vaadin.navigator.ViewChangeListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SerializationTest {
+    private final static Logger LOG = LoggerFactory.getLogger(SerializationTest.class);
+
+    private static final String MAPPER_TREE_KEY = "serializationTest.mapperTree";
+    private static final String ROUTING_CONTEXT_KEY = "serializationTest.routingContext";
+    private static final String ADMISSION_CONTROL_KEY = "serializationTest.admissionControl";
+
+    private CompiledUriActionMapperTree mapperTree;
+    private LargeRoutingContext routingContext;
+
+    @Before
+    public void setUp() {
+        mapperTree = CompiledUriActionMapperTree.compile(UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .build());
+        routingContext = new LargeRoutingContext();
+        UriActionRegistry.register(MAPPER_TREE_KEY, mapperTree);
+    }
+
+    @After
+    public void tearDown() {
+        UriActionRegistry.unregister(MAPPER_TREE_KEY);
+        UriActionRegistry.unregister(ROUTING_CONTEXT_KEY);
+        UriActionRegistry.unregister(ADMISSION_CONTROL_KEY);
+    }
+
+    @Test
+    public void testSharedObjectsAreReattached() throws Exception {
+        UriActionRegistry.register(ROUTING_CONTEXT_KEY, routingContext);
+        final UriFragmentActionNavigatorWrapper deserializedWrapper = deserialize(serialize(createWrapper()));
+
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        deserializedWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+        deserializedWrapper.getNavigator().navigateTo("/test");
+
+        assertThat(executedCommands.size(), equalTo(1));
+        assertTrue(((UriFragmentActionNavigatorWrapperTest.TestActionCommand) executedCommands.get(0)).isExecuted());
+    }
+
+    @Test
+    public void testRegisteredObjectsAreNotCopiedIntoSession() throws Exception {
+        final int bytesWithCopiedContext = serialize(createWrapper()).length;
+        UriActionRegistry.register(ROUTING_CONTEXT_KEY, routingContext);
+        final int bytesWithRegisteredContext = serialize(createWrapper()).length;
+
+        LOG.info("Serialized navigator wrapper: {} bytes with copied routing context, {} bytes with registered routing context",
+                bytesWithCopiedContext, bytesWithRegisteredContext);
+        assertTrue(bytesWithRegisteredContext + LargeRoutingContext.SIZE <= bytesWithCopiedContext);
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testUnregisteredMapperTreeIsRejected() throws Exception {
+        UriActionRegistry.unregister(MAPPER_TREE_KEY);
+        serialize(createWrapper());
+    }
+
+    @Test
+    public void testUncompiledMapperTreeIsRecompiled() throws Exception {
+        UriActionRegistry.unregister(MAPPER_TREE_KEY);
+        UriActionRegistry.register(MAPPER_TREE_KEY, mapperTree.getUriActionMapperTree());
+        UriActionRegistry.register(ROUTING_CONTEXT_KEY, routingContext);
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setUriActionMapperTree(mapperTree.getUriActionMapperTree());
+
+        final UriFragmentActionNavigatorWrapper deserializedWrapper = deserialize(serialize(wrapper));
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        deserializedWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+        deserializedWrapper.getNavigator().navigateTo("/test");
+
+        assertThat(executedCommands.size(), equalTo(1));
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testUnregisteredFragmentResolutionCacheIsRejected() throws Exception {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setFragmentResolutionCache(new FragmentResolutionCache(16));
+        serialize(wrapper);
+    }
+
+    @Test
+    public void testSessionScopedAdmissionControlIsCopied() throws Exception {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setAdmissionControl(AdmissionControl.builder()
+                .limitRoute("/test", AdmissionLimit.maxInFlight(1))
+                .build());
+
+        assertThat(deserialize(serialize(wrapper)).getAdmissionControl().getRules().size(), equalTo(1));
+    }
+
+    @Test
+    public void testSharedAdmissionControlIsReattached() throws Exception {
+        final AdmissionControl admissionControl = AdmissionControl.builder()
+                .limitRoute("/test", AdmissionLimit.maxInFlight(1))
+                .buildShared();
+        UriActionRegistry.register(ADMISSION_CONTROL_KEY, admissionControl);
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setAdmissionControl(admissionControl);
+
+        assertSame(admissionControl, deserialize(serialize(wrapper)).getAdmissionControl());
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testUnregisteredSharedAdmissionControlIsRejected() throws Exception {
+        final UriFragmentActionNavigatorWrapper wrapper = createWrapper();
+        wrapper.setAdmissionControl(AdmissionControl.builder()
+                .limitRoute("/test", AdmissionLimit.maxInFlight(1))
+                .buildShared());
+        serialize(wrapper);
+    }
+
+    private UriFragmentActionNavigatorWrapper createWrapper() {
+        final UriFragmentActionNavigatorWrapper wrapper = new UriFragmentActionNavigatorWrapper(new TestUI(),
+                new TestNavigationStateHandler(), null);
+        wrapper.setUriActionMapperTree(mapperTree);
+        wrapper.setRoutingContext(routingContext);
+        wrapper.getNavigator().navigateTo("/test");
+        return wrapper;
+    }
+
+    private static byte[] serialize(final Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static UriFragmentActionNavigatorWrapper deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (UriFragmentActionNavigatorWrapper) in.readObject();
+        }
+    }
+
+    /**
+     * Routing context which stands for application-wide services with a considerable serialized size.
+     */
+    private static class LargeRoutingContext implements Serializable {
+        private static final int SIZE = 64 * 1024;
+
+        private final byte[] data = new byte[SIZE];
+    }
+}
@@ -0,0 +1,286 @@
+package org.vaadin.uriactions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionCommand;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TwoPhaseExecutionTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+    private ExecutorService commandExecutor;
+    private ExecutorService loaderExecutor;
+
+    @Before
+    public void setUp() {
+        commandExecutor = Executors.newSingleThreadExecutor();
+        loaderExecutor = Executors.newCachedThreadPool();
+        ParallelLoadingActionCommand.lastExecutedCommand.set(null);
+        BlockingLoaderActionCommand.loaderStarted = new CountDownLatch(1);
+        BlockingLoaderActionCommand.loaderInterrupted = new CountDownLatch(1);
+        BlockingApplyActionCommand.applyStarted = new CountDownLatch(1);
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .map("parallel").onActionFactory(ParallelLoadingActionCommand::new).finishMapper()
+                .map("failing").onActionFactory(FailingLoaderActionCommand::new).finishMapper()
+                .map("failingWhileLoading").onActionFactory(BlockingLoaderActionCommand::new).finishMapper()
+                .map("blockingApply").onActionFactory(BlockingApplyActionCommand::new).finishMapper()
+                .build());
+    }
+
+    @After
+    public void tearDown() {
+        commandExecutor.shutdownNow();
+        loaderExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testLoadersRunInParallelBeforeApply() {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/parallel");
+
+        final ParallelLoadingActionCommand command = ParallelLoadingActionCommand.lastExecutedCommand.get();
+        assertTrue("Apply phase was not executed.", command != null && command.applied);
+    }
+
+    @Test
+    public void testLoadersRunInParallelWithAsynchronousExecution() throws InterruptedException {
+        final CountDownLatch completed = new CountDownLatch(1);
+        uriFragmentActionNavigatorWrapper.enableAsynchronousExecution(commandExecutor);
+        uriFragmentActionNavigatorWrapper.setLoaderExecutor(loaderExecutor);
+        uriFragmentActionNavigatorWrapper.setAsynchronousExecutionListener(new AsynchronousExecutionListener() {
+            @Override
+            public void executionCompleted(final UriActionCommand command) {
+                completed.countDown();
+            }
+
+            @Override
+            public void executionFailed(final UriActionCommand command, final Throwable failure) {
+            }
+
+            @Override
+            public void executionCancelled(final UriActionCommand command) {
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/parallel");
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertTrue("Apply phase was not executed.", ParallelLoadingActionCommand.lastExecutedCommand.get().applied);
+    }
+
+    @Test
+    public void testApplyInterruptedByNewerNavigationIsReportedAsCancelled() throws InterruptedException {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        uriFragmentActionNavigatorWrapper.enableAsynchronousExecution(commandExecutor);
+        uriFragmentActionNavigatorWrapper.setLoaderExecutor(loaderExecutor);
+        final NavigationTrace trace = uriFragmentActionNavigatorWrapper.enableNavigationTrace(8);
+        uriFragmentActionNavigatorWrapper.setAsynchronousExecutionListener(new AsynchronousExecutionListener() {
+            @Override
+            public void executionCompleted(final UriActionCommand command) {
+                if (command instanceof BlockingApplyActionCommand) {
+                    fail("Interrupted apply phase was reported as completed.");
+                }
+                completed.countDown();
+            }
+
+            @Override
+            public void executionFailed(final UriActionCommand command, final Throwable failure) {
+            }
+
+            @Override
+            public void executionCancelled(final UriActionCommand command) {
+                cancelled.countDown();
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/blockingApply");
+        assertTrue(BlockingApplyActionCommand.applyStarted.await(5, TimeUnit.SECONDS));
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/parallel");
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        // the single command thread runs the second command only after the first one has been recorded
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        final NavigationTrace.Entry entry = trace.dump().get(0);
+        assertThat(entry.getOutcome(), equalTo(NavigationTrace.Outcome.CANCELLED));
+        assertThat(entry.getExecutionNanos(), equalTo(-1L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailingLoaderPreventsApply() {
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/failing");
+    }
+
+    @Test
+    public void testFailingLoaderCancelsRunningLoaders() throws InterruptedException {
+        uriFragmentActionNavigatorWrapper.setLoaderExecutor(loaderExecutor);
+        try {
+            uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/failingWhileLoading");
+            fail("Failing loader was not reported.");
+        } catch (IllegalStateException expected) {
+            // the loader's failure is propagated
+        }
+
+        assertTrue("Running loader was not cancelled.",
+                BlockingLoaderActionCommand.loaderInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInterruptedLoadPhaseCancelsRunningLoaders() throws InterruptedException {
+        final CountDownLatch bothLoadersStarted = new CountDownLatch(2);
+        final CountDownLatch loadersInterrupted = new CountDownLatch(2);
+        final Runnable blockingLoader = () -> {
+            bothLoadersStarted.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                loadersInterrupted.countDown();
+            }
+        };
+        final AtomicReference<Throwable> loadFailure = new AtomicReference<>();
+        final Thread loadingThread = new Thread(() -> {
+            try {
+                TwoPhaseExecution.load(new LoadingOnlyActionCommand(blockingLoader, blockingLoader), loaderExecutor);
+            } catch (RuntimeException e) {
+                loadFailure.set(e);
+            }
+        });
+        loadingThread.start();
+        assertTrue(bothLoadersStarted.await(5, TimeUnit.SECONDS));
+
+        loadingThread.interrupt();
+        loadingThread.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertTrue(loadFailure.get() instanceof CancellationException);
+        assertTrue("Running loaders were not cancelled.", loadersInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    public static class ParallelLoadingActionCommand implements TwoPhaseUriActionCommand {
+        private static final AtomicReference<ParallelLoadingActionCommand> lastExecutedCommand = new AtomicReference<>();
+
+        private final CyclicBarrier allLoadersStarted = new CyclicBarrier(3);
+        private volatile int loadedValues;
+        private volatile boolean applied;
+
+        @Override
+        public Collection<Runnable> getLoaders() {
+            return Arrays.asList(this::load, this::load, this::load);
+        }
+
+        private void load() {
+            try {
+                // only returns if all three loaders run at the same time
+                allLoadersStarted.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("loaders are not executed in parallel", e);
+            }
+            synchronized (this) {
+                loadedValues++;
+            }
+        }
+
+        @Override
+        public void apply() {
+            applied = loadedValues == 3;
+            lastExecutedCommand.set(this);
+        }
+    }
+
+    public static class FailingLoaderActionCommand implements TwoPhaseUriActionCommand {
+        @Override
+        public Collection<Runnable> getLoaders() {
+            return Arrays.asList(() -> {
+            }, () -> {
+                throw new IllegalStateException("backend not available");
+            });
+        }
+
+        @Override
+        public void apply() {
+            throw new AssertionError("apply must not be called when a loader fails");
+        }
+    }
+
+    public static class BlockingLoaderActionCommand implements TwoPhaseUriActionCommand {
+        private static volatile CountDownLatch loaderStarted;
+        private static volatile CountDownLatch loaderInterrupted;
+
+        @Override
+        public Collection<Runnable> getLoaders() {
+            return Arrays.asList(() -> {
+                loaderStarted.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    loaderInterrupted.countDown();
+                }
+            }, () -> {
+                try {
+                    loaderStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("backend not available");
+            });
+        }
+
+        @Override
+        public void apply() {
+            throw new AssertionError("apply must not be called when a loader fails");
+        }
+    }
+
+    public static class BlockingApplyActionCommand implements TwoPhaseUriActionCommand {
+        private static volatile CountDownLatch applyStarted;
+
+        @Override
+        public Collection<Runnable> getLoaders() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void apply() {
+            applyStarted.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class LoadingOnlyActionCommand implements TwoPhaseUriActionCommand {
+        private final Collection<Runnable> loaders;
+
+        private LoadingOnlyActionCommand(final Runnable... loaders) {
+            this.loaders = Arrays.asList(loaders);
+        }
+
+        @Override
+        public Collection<Runnable> getLoaders() {
+            return loaders;
+        }
+
+        @Override
+        public void apply() {
+        }
+    }
+}
@@ -13,8 +13,13 @@ import org.slf4j.LoggerFactory;
 import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
 import org.vaadin.uriactions.testhelpers.TestUI;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -91,6 +96,286 @@ public class UriFragmentActionNavigatorWrapperTest {
         assertTrue("Separately provided view display was not activated.", viewDisplay.viewShown);
     }
 
+    @Test
+    public void testUnknownFragmentIsNotInterned() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("test")
+                .onActionFactory(TestActionCommand::new)
+                .finishMapper().build();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+        final String unknownFragment = "separate_view_" + System.nanoTime();
+        uriFragmentActionNavigatorWrapper.getNavigator().addView(unknownFragment, (View) event -> {
+        });
+
+        final int internedCount = UriFragment.getInternedCount();
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo(unknownFragment);
+        assertTrue("URI fragment rejected by the index was interned.",
+                UriFragment.getInternedCount() <= internedCount);
+    }
+
+    @Test
+    public void testFragmentResolutionCache() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("test")
+                .onActionFactory(CopyableTestActionCommand::new)
+                .finishMapper().build();
+
+        final FragmentResolutionCache cache = new FragmentResolutionCache(10);
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+        uriFragmentActionNavigatorWrapper.setRoutingContext(new MyRoutingContext("contextData"));
+        uriFragmentActionNavigatorWrapper.setFragmentResolutionCache(cache);
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+
+        assertThat(cache.getMissCount(), equalTo(1L));
+        assertThat(cache.getHitCount(), equalTo(1L));
+        assertThat(cache.size(), equalTo(1));
+        assertThat(executedCommands.size(), equalTo(2));
+        assertNotSame(executedCommands.get(0), executedCommands.get(1));
+        for (final UriActionCommand command : executedCommands) {
+            final CopyableTestActionCommand testCommand = (CopyableTestActionCommand) command;
+            assertTrue("Action command was not executed.", testCommand.isExecuted());
+            assertThat(testCommand.getRoutingContext().getData(), equalTo("contextData"));
+        }
+    }
+
+    @Test
+    public void testFragmentResolutionCacheEvictsLeastRecentlyUsedEntry() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("first").onActionFactory(CopyableTestActionCommand::new).finishMapper()
+                .map("second").onActionFactory(CopyableTestActionCommand::new).finishMapper()
+                .build();
+
+        final FragmentResolutionCache cache = new FragmentResolutionCache(1);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+        uriFragmentActionNavigatorWrapper.setFragmentResolutionCache(cache);
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/first");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/second");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/first");
+
+        assertThat(cache.getMissCount(), equalTo(3L));
+        assertThat(cache.getEvictionCount(), equalTo(2L));
+        assertThat(cache.size(), equalTo(1));
+    }
+
+    @Test
+    public void testWrappersShareCompiledMapperTree() {
+        final CompiledUriActionMapperTree compiledMapperTree = CompiledUriActionMapperTree.compile(
+                UriActionMapperTree.create().buildMapperTree()
+                        .map("test")
+                        .onActionFactory(TestActionCommand::new)
+                        .finishMapper().build());
+        final UriFragmentActionNavigatorWrapper otherWrapper =
+                new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(compiledMapperTree);
+        otherWrapper.setUriActionMapperTree(compiledMapperTree);
+
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        final ViewChangeListener listener = new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                if (event.getNewView() instanceof ActionExecutionView) {
+                    executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+                }
+            }
+        };
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(listener);
+        otherWrapper.getNavigator().addViewChangeListener(listener);
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        otherWrapper.getNavigator().navigateTo("/test");
+        assertThat(executedCommands.size(), equalTo(2));
+        assertNotSame(executedCommands.get(0), executedCommands.get(1));
+
+        assertTrue(compiledMapperTree.getIndex().mayResolve("test/unknown"));
+        uriFragmentActionNavigatorWrapper.getNavigator().addView("test/unknown", (View) event -> {
+        });
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("test/unknown");
+        assertFalse("Unresolvable fragment was not remembered by the compiled mapper tree.",
+                compiledMapperTree.getIndex().mayResolve("test/unknown"));
+    }
+
+    @Test
+    public void testWrappersShareCompiledFormOfSameMapperTree() {
+        final UriActionMapperTree mapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("test").onActionFactory(TestActionCommand::new).finishMapper()
+                .build();
+        final UriFragmentActionNavigatorWrapper otherWrapper =
+                new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(mapperTree);
+        otherWrapper.setUriActionMapperTree(mapperTree);
+
+        final CompiledUriActionMapperTree compiledMapperTree = CompiledUriActionMapperTree.compile(mapperTree);
+        assertSame(mapperTree, compiledMapperTree.getUriActionMapperTree());
+        assertNotSame(compiledMapperTree, CompiledUriActionMapperTree.compile(mapperTree,
+                MapperTreeIndex.DEFAULT_NEGATIVE_CACHE_SIZE));
+
+        otherWrapper.getNavigator().addView("test/unknown", (View) event -> {
+        });
+        otherWrapper.getNavigator().navigateTo("test/unknown");
+        assertFalse("Wrapper did not use the memoized compiled mapper tree.",
+                compiledMapperTree.getIndex().mayResolve("test/unknown"));
+    }
+
+    @Test
+    public void testRedirectingCommand() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("redirect").onActionFactory(() -> () -> uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test"))
+                .finishMapper()
+                .map("test").onActionFactory(TestActionCommand::new).finishMapper()
+                .build();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/redirect");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/redirect");
+
+        assertThat(executedCommands.size(), equalTo(4));
+        assertTrue(((TestActionCommand) executedCommands.get(0)).isExecuted());
+        assertTrue(((TestActionCommand) executedCommands.get(2)).isExecuted());
+    }
+
+    @Test
+    public void testRedirectingViewChangeListener() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("secured").onActionFactory(TestActionCommand::new).finishMapper()
+                .map("login").onActionFactory(TestActionCommand::new).finishMapper()
+                .build();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+
+        final List<String> enteredStates = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                if ("/secured".equals(event.getViewName())) {
+                    uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/login");
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                enteredStates.add(event.getViewName());
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/secured");
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/secured");
+
+        assertThat(enteredStates.size(), equalTo(2));
+        assertThat(enteredStates.get(0), equalTo("/login"));
+        assertThat(enteredStates.get(1), equalTo("/login"));
+    }
+
+    @Test
+    public void testRedirectingViewChangeListenerContinuingOuterNavigation() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("secured").onActionFactory(TestActionCommand::new).finishMapper()
+                .map("login").onActionFactory(TestActionCommand::new).finishMapper()
+                .build();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+
+        final List<String> enteredStates = new ArrayList<>();
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                if ("/secured".equals(event.getViewName())) {
+                    // the nested navigation must not reuse the view of the outer navigation, which is still in flight
+                    uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/login");
+                }
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                enteredStates.add(event.getViewName());
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+            }
+        });
+
+        uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/secured");
+
+        assertThat(enteredStates.size(), equalTo(2));
+        assertThat(enteredStates.get(0), equalTo("/login"));
+        assertThat(enteredStates.get(1), equalTo("/secured"));
+        assertNotSame(executedCommands.get(0), executedCommands.get(1));
+        assertTrue(((TestActionCommand) executedCommands.get(0)).isExecuted());
+        assertTrue(((TestActionCommand) executedCommands.get(1)).isExecuted());
+    }
+
+    @Test
+    public void testExecutionViewsAreReused() {
+        uriActionMapperTree = UriActionMapperTree.create().buildMapperTree()
+                .map("test")
+                .onActionFactory(TestActionCommand::new)
+                .finishMapper().build();
+
+        final List<View> newViews = new ArrayList<>();
+        final List<UriActionCommand> executedCommands = new ArrayList<>();
+        final List<UriActionCommand> previousCommands = new ArrayList<>();
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(uriActionMapperTree);
+        uriFragmentActionNavigatorWrapper.getNavigator().addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(final ViewChangeEvent event) {
+                return true;
+            }
+
+            @Override
+            public void afterViewChange(final ViewChangeEvent event) {
+                assertNotSame(event.getOldView(), event.getNewView());
+                newViews.add(event.getNewView());
+                executedCommands.add(((ActionExecutionView) event.getNewView()).getUriActionCommand());
+                if (event.getOldView() != null) {
+                    previousCommands.add(((ActionExecutionView) event.getOldView()).getUriActionCommand());
+                }
+            }
+        });
+
+        for (int i = 0; i < 4; i++) {
+            uriFragmentActionNavigatorWrapper.getNavigator().navigateTo("/test");
+        }
+
+        assertThat(newViews.size(), equalTo(4));
+        assertSame(newViews.get(0), newViews.get(3));
+        assertSame(executedCommands.get(0), previousCommands.get(0));
+        assertSame(executedCommands.get(1), previousCommands.get(1));
+        assertSame(executedCommands.get(2), previousCommands.get(2));
+        assertNotSame(executedCommands.get(0), executedCommands.get(3));
+    }
+
     private static class TestViewDisplay implements ViewDisplay {
         public boolean viewShown = false;
 
@@ -134,4 +419,13 @@ public class UriFragmentActionNavigatorWrapperTest {
             return executed;
         }
     }
+
+    public static class CopyableTestActionCommand extends TestActionCommand implements CopyableUriActionCommand {
+        @Override
+        public UriActionCommand copy() {
+            final CopyableTestActionCommand copy = new CopyableTestActionCommand();
+            copy.setRoutingContext(getRoutingContext());
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package org.vaadin.uriactions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.roklib.urifragmentrouting.UriActionMapperTree;
+import org.vaadin.uriactions.testhelpers.TestNavigationStateHandler;
+import org.vaadin.uriactions.testhelpers.TestUI;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class UriFragmentTemplateTest {
+    private UriFragmentActionNavigatorWrapper uriFragmentActionNavigatorWrapper;
+
+    @Before
+    public void setUp() {
+        uriFragmentActionNavigatorWrapper = new UriFragmentActionNavigatorWrapper(new TestUI(), new TestNavigationStateHandler(), null);
+        uriFragmentActionNavigatorWrapper.setUriActionMapperTree(UriActionMapperTree.create().buildMapperTree()
+                .mapSubtree("admin")
+                .onSubtree()
+                .map("users").onActionFactory(UriFragmentActionNavigatorWrapperTest.TestActionCommand::new).finishMapper()
+                .finishMapper()
+                .build());
+    }
+
+    @Test
+    public void testAssembleFragment() {
+        final UriFragmentTemplate template = UriFragmentTemplate.compile("/admin/users/id/{id}/profile/{tab}");
+
+        assertThat(template.getParameterNames(), equalTo(Arrays.asList("id", "tab")));
+        assertThat(template.getStaticPrefix(), equalTo("/admin/users/id/"));
+        assertThat(template.assemble(42L, "settings"), equalTo("/admin/users/id/42/profile/settings"));
+        final Map<String, Object> parameterValues = new HashMap<>();
+        parameterValues.put("id", 7);
+        parameterValues.put("tab", "x");
+        assertThat(template.assemble(parameterValues), equalTo("/admin/users/id/7/profile/x"));
+    }
+
+    @Test
+    public void testParameterValuesAreEncoded() {
+        final UriFragmentTemplate template = UriFragmentTemplate.compile("/search/{term}");
+
+        assertThat(template.assemble("a b/\u00fc"), equalTo("/search/a%20b%2F%C3%BC"));
+    }
+
+    @Test
+    public void testAssembleBatch() {
+        final UriFragmentTemplate template = uriFragmentActionNavigatorWrapper
+                .getUriFragmentTemplate("/admin/users/id/{id}/profile").withPrefix("#!");
+        final List<Long> ids = Arrays.asList(1L, 22L, 333L);
+
+        final List<String> expected = Arrays.asList("#!/admin/users/id/1/profile", "#!/admin/users/id/22/profile",
+                "#!/admin/users/id/333/profile");
+        assertThat(template.assembleAll(ids, (id, parameterIndex) -> id), equalTo(expected));
+        assertThat(template.assembleStream(ids.stream(), (id, parameterIndex) -> id).collect(Collectors.toList()),
+                equalTo(expected));
+        assertThat(template.assembleStream(ids.parallelStream(), (id, parameterIndex) -> id).collect(Collectors.toList()),
+                equalTo(expected));
+    }
+
+    @Test
+    public void testStreamMadeParallelAfterAssemblyIsNotCorrupted() {
+        final UriFragmentTemplate template = uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/admin/users/id/{id}/profile");
+        final List<Integer> ids = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+        final List<String> expected = ids.stream().map(template::assemble).collect(Collectors.toList());
+
+        assertThat(template.assembleStream(ids.stream(), (id, parameterIndex) -> id).parallel().collect(Collectors.toList()),
+                equalTo(expected));
+    }
+
+    @Test
+    public void testTemplatesAreMemoized() {
+        assertSame(uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/admin/users/id/{id}"),
+                uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/admin/users/id/{id}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnresolvableTemplateIsRejected() {
+        uriFragmentActionNavigatorWrapper.getUriFragmentTemplate("/unknown/id/{id}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedTemplateIsRejected() {
+        UriFragmentTemplate.compile("/admin/users/id/{id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingParameterValueIsRejected() {
+        UriFragmentTemplate.compile("/admin/users/id/{id}").assemble(Collections.emptyMap());
+    }
+}
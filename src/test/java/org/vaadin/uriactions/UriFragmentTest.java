@@ -0,0 +1,49 @@
+package org.vaadin.uriactions;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class UriFragmentTest {
+    @Test
+    public void testEqualFragmentsAreInternedOnce() {
+        final UriFragment first = UriFragment.intern(new String("/admin/users/id/42"));
+        final UriFragment second = UriFragment.intern(new String("/admin/users/id/42"));
+
+        assertSame(first, second);
+        assertSame(first.getValue(), second.getValue());
+        assertNotSame(first, UriFragment.intern("/admin/users/id/43"));
+    }
+
+    @Test
+    public void testEqualFragmentsAreEqual() {
+        final UriFragment uriFragment = UriFragment.intern("/home");
+
+        assertEquals(uriFragment, UriFragment.intern(new String("/home")));
+        assertThat(uriFragment.hashCode(), equalTo("/home".hashCode()));
+        assertFalse(uriFragment.equals(UriFragment.intern("/home/")));
+    }
+
+    @Test
+    public void testDeserializedFragmentIsInterned() throws Exception {
+        final UriFragment uriFragment = UriFragment.intern("/serialized/fragment");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(uriFragment);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(uriFragment, in.readObject());
+        }
+    }
+}